@@ -8,12 +8,16 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.security.CodeSource;
+import java.security.cert.Certificate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -48,6 +52,10 @@ public class AgentClassLoader extends URLClassLoader {
     private JarInfo agentJarInfo;
     private JarFile agentJarFile;
     private List<JarInfo> extensionJarFiles;
+    /**
+     * entry name -> entry of the agent jar and extension jars, built once and read only after construction
+     */
+    private final Map<String, JarEntryInfo> entryIndex;
 
     public AgentClassLoader(File jarFile, ClassLoader parent, File[] extensionJars) {
         super(new URL[]{}, parent);
@@ -62,6 +70,31 @@ public class AgentClassLoader extends URLClassLoader {
         } catch (IOException e) {
             throw new IllegalStateException("Unable to open agent jar", e);
         }
+        this.entryIndex = buildEntryIndex();
+    }
+
+    /**
+     * Index the entries of all the jars in lookup order, the agent jar first, then the extension jars,
+     * the first jar containing a name wins.
+     */
+    private Map<String, JarEntryInfo> buildEntryIndex() {
+        Map<String, JarEntryInfo> index = new HashMap<>(agentJarFile.size() * 4 / 3 + 1);
+        indexJarEntries(index, agentJarInfo);
+        for (JarInfo jarInfo : extensionJarFiles) {
+            indexJarEntries(index, jarInfo);
+        }
+        return index;
+    }
+
+    private static void indexJarEntries(Map<String, JarEntryInfo> index, JarInfo jarInfo) {
+        Enumeration<JarEntry> entries = jarInfo.getJarFile().entries();
+        while (entries.hasMoreElements()) {
+            JarEntry jarEntry = entries.nextElement();
+            String name = jarEntry.getName();
+            if (!index.containsKey(name)) {
+                index.put(name, new JarEntryInfo(name, jarEntry, jarInfo));
+            }
+        }
     }
 
     private List<JarInfo> getExtensionJarFiles(File[] extensionFiles) {
@@ -118,7 +151,8 @@ public class AgentClassLoader extends URLClassLoader {
             }
 
             definePackageIfNeeded(jarEntryInfo, name);
-            return defineClass(name, bytes);
+            // defined with the jar as code source, the class can be archived and reused by class data sharing
+            return defineClass(name, bytes, 0, bytes.length, jarEntryInfo.getJarInfo().getCodeSource());
         }
         return null;
     }
@@ -164,29 +198,14 @@ public class AgentClassLoader extends URLClassLoader {
         return buffer;
     }
 
-    // need to cache
     private JarEntryInfo findJarEntry(String name) {
-        JarEntry jarEntry = agentJarInfo.getJarFile().getJarEntry(name);
-        if (jarEntry != null) {
-            return new JarEntryInfo(name, jarEntry, agentJarInfo);
-        }
-
-        for (JarInfo jarInfo : extensionJarFiles) {
-            jarEntry = jarInfo.getJarFile().getJarEntry(name);
-            if (jarEntry != null) {
-                return new JarEntryInfo(name, jarEntry, jarInfo);
-            }
-        }
-
-        return null;
+        return entryIndex.get(name);
     }
 
     private URL getJarEntryUrl(JarEntryInfo jarInfo) {
         if (jarInfo != null && jarInfo.getJarEntry() != null) {
             try {
-                return new URL(
-                    "jar:" + jarInfo.getJarInfo().getSourceFile().toURI().toURL() + "!/" + jarInfo.getJarEntry()
-                        .getName());
+                return new URL(jarInfo.getJarInfo().getUrlPrefix() + jarInfo.getJarEntry().getName());
             } catch (MalformedURLException e) {
                 throw new IllegalStateException(jarInfo.getJarEntry().getName(), e);
             }
@@ -255,10 +274,15 @@ public class AgentClassLoader extends URLClassLoader {
 
         private final JarFile jarFile;
         private final File sourceFile;
+        private final String urlPrefix;
+        private final CodeSource codeSource;
 
-        private JarInfo(JarFile jarFile, File sourceFile) {
+        private JarInfo(JarFile jarFile, File sourceFile) throws MalformedURLException {
             this.jarFile = jarFile;
             this.sourceFile = sourceFile;
+            URL url = sourceFile.toURI().toURL();
+            this.urlPrefix = "jar:" + url + "!/";
+            this.codeSource = new CodeSource(url, (Certificate[]) null);
         }
 
         public JarFile getJarFile() {
@@ -268,5 +292,13 @@ public class AgentClassLoader extends URLClassLoader {
         public File getSourceFile() {
             return sourceFile;
         }
+
+        public String getUrlPrefix() {
+            return urlPrefix;
+        }
+
+        public CodeSource getCodeSource() {
+            return codeSource;
+        }
     }
 }
@@ -8,6 +8,7 @@ import java.lang.reflect.Constructor;
 public class AgentInitializer {
 
     private static ClassLoader classLoader;
+    private static volatile long startNanos;
 
     public static void initialize(Instrumentation inst, File agentFile, String agentArgs)
             throws Exception {
@@ -15,6 +16,7 @@ public class AgentInitializer {
             return;
         }
 
+        startNanos = System.nanoTime();
         System.setProperty("arex.agent.jar.file.path", agentFile.getAbsolutePath());
         File[] extensionFiles = getExtensionJarFiles(agentFile);
         classLoader = createAgentClassLoader(agentFile, extensionFiles);
@@ -24,6 +26,13 @@ public class AgentInitializer {
         installer.install();
     }
 
+    /**
+     * @return System.nanoTime() when the agent starts to initialize, 0 if not initialized
+     */
+    public static long getStartNanos() {
+        return startNanos;
+    }
+
     private static void addJarToLoaderSearch(File agentFile, File[] extensionFiles) {
         AdviceClassesCollector.INSTANCE.addJarToLoaderSearch(agentFile);
 
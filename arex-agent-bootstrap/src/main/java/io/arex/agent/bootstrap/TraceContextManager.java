@@ -1,12 +1,14 @@
 package io.arex.agent.bootstrap;
 
 import io.arex.agent.bootstrap.ctx.ArexThreadLocal;
+import io.arex.agent.bootstrap.ctx.TraceId;
+import io.arex.agent.bootstrap.ctx.TraceSlot;
 
 import java.util.concurrent.atomic.AtomicLong;
 
 
 public class TraceContextManager {
-    private static final ArexThreadLocal<String> TRACE_CONTEXT = new ArexThreadLocal<>();
+    private static final ArexThreadLocal<TraceSlot> TRACE_CONTEXT = new ArexThreadLocal<>();
     private static IDGenerator idGenerator;
 
     public static void init(String ipAddress) {
@@ -21,43 +23,58 @@ public class TraceContextManager {
      * This method can only be called at the service entrance
      */
     public static String get(boolean createIfAbsent) {
-        String messageId = TRACE_CONTEXT.get();
-        if (messageId == null && createIfAbsent) {
-            messageId = idGenerator.next();
-            TRACE_CONTEXT.set(messageId);
+        TraceSlot slot = TRACE_CONTEXT.get();
+        if (slot == null && createIfAbsent) {
+            slot = new TraceSlot(idGenerator.next());
+            TRACE_CONTEXT.set(slot);
         }
-        return messageId;
+        return slot == null ? null : slot.getTraceId();
+    }
+
+    /**
+     * Slot of the current trace, the runtime context attached to it is dropped when the trace id changes
+     */
+    public static TraceSlot getSlot() {
+        return TRACE_CONTEXT.get();
     }
 
     public static void set(String traceId) {
-        TRACE_CONTEXT.set(traceId);
+        TRACE_CONTEXT.set(traceId == null ? null : new TraceSlot(traceId));
     }
 
     public static String remove() {
-        String messageId = TRACE_CONTEXT.get();
+        TraceSlot slot = TRACE_CONTEXT.get();
         TRACE_CONTEXT.remove();
-        return messageId;
+        return slot == null ? null : slot.getTraceId();
+    }
+
+    /**
+     * @return id of the current trace without rendering it, null if no trace
+     */
+    public static TraceId getId() {
+        TraceSlot slot = TRACE_CONTEXT.get();
+        return slot == null ? null : slot.getId();
     }
 
     public static String generateId() {
-        return idGenerator.next();
+        return idGenerator.next().toString();
     }
 
+    /**
+     * Ids of AREX-{ip}-{millis}{counter}, the wall clock millis keeps the ids unique across restarts
+     * and the ip across hosts. The text is rendered by {@link TraceId} when it is needed.
+     */
     private static final class IDGenerator {
-        private final String PREFIX;
+        private final char[] prefix;
         private final AtomicLong counter;
 
         public IDGenerator(String prefix, long initialCount) {
-            PREFIX = "AREX-" + (prefix == null ? "" : prefix.replace(".", "-")) + "-";
+            this.prefix = ("AREX-" + (prefix == null ? "" : prefix.replace(".", "-")) + "-").toCharArray();
             this.counter = new AtomicLong(initialCount);
         }
 
-        public String next() {
-            return PREFIX.concat(String.valueOf(getNowMillis())).concat(String.valueOf(counter.getAndIncrement()));
-        }
-
-        private long getNowMillis() {
-            return System.nanoTime() / 1000000;
+        public TraceId next() {
+            return new TraceId(prefix, System.currentTimeMillis(), counter.getAndIncrement() & Long.MAX_VALUE);
         }
     }
 }
@@ -8,7 +8,7 @@ import java.util.Map;
 
 public class AdviceInjectorCache {
 
-    public static Cache<String, AdviceClassInjector> injectorCache = Cache.trieCacheWithInit("io.arex.inst.");
+    public static Cache<String, AdviceClassInjector> injectorCache = Cache.trieCache();
 
     public static void registerInjector(String name, AdviceClassInjector injector) {
         injectorCache.put(name, injector);
@@ -1,16 +1,30 @@
 package io.arex.agent.bootstrap.cache;
 
 import io.arex.agent.bootstrap.TraceContextManager;
+import io.arex.agent.bootstrap.ctx.TraceId;
 import io.arex.agent.bootstrap.internal.Pair;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Mock time of the traces in replay. The time advices call {@link #get()} on every time call,
+ * so while no trace has mocked time the lookup is skipped after a single volatile read.
+ * The traces are keyed by their {@link TraceId}, the time calls don't render the trace id.
+ */
 public class TimeCache {
-    private static final ConcurrentHashMap<String, Pair<Long, Long>> CACHE = new ConcurrentHashMap<>(30);
+    private static final ConcurrentHashMap<TraceId, Pair<Long, Long>> CACHE = new ConcurrentHashMap<>(30);
+    /**
+     * count of traces with mocked time, 0 means the time machine is inactive
+     */
+    private static final AtomicInteger MOCKED_COUNT = new AtomicInteger();
 
     public static long get() {
-        String traceId = TraceContextManager.get();
+        if (MOCKED_COUNT.get() == 0) {
+            return 0L;
+        }
+        TraceId traceId = TraceContextManager.getId();
         if (traceId == null) {
             return 0L;
         }
@@ -20,15 +34,15 @@ public class TimeCache {
     }
 
     public static void put(long value) {
-        String traceId = TraceContextManager.get();
-        if (traceId != null) {
-            CACHE.put(traceId, Pair.of(value, System.nanoTime()));
+        TraceId traceId = TraceContextManager.getId();
+        if (traceId != null && CACHE.put(traceId, Pair.of(value, System.nanoTime())) == null) {
+            MOCKED_COUNT.incrementAndGet();
         }
     }
     public static void remove() {
-        String traceId = TraceContextManager.get();
-        if (traceId != null) {
-            CACHE.remove(traceId);
+        TraceId traceId = TraceContextManager.getId();
+        if (traceId != null && CACHE.remove(traceId) != null) {
+            MOCKED_COUNT.decrementAndGet();
         }
     }
 }
@@ -9,6 +9,7 @@ public class ConfigConstants {
     public static final String STORAGE_MODE = "local";
     public static final String RECORD_RATE = "arex.rate.limit";
     public static final String DYNAMIC_RESULT_SIZE_LIMIT = "arex.dynamic.result.size.limit";
+    public static final String DYNAMIC_RESULT_BYTES_LIMIT = "arex.dynamic.result.bytes.limit";
     public static final String TIME_MACHINE = "arex.time.machine";
     public static final String STORAGE_SERVICE_MODE = "arex.storage.mode";
     public static final String ALLOW_DAY_WEEKS = "arex.allow.day.weeks";
@@ -17,6 +18,11 @@ public class ConfigConstants {
 
     public static final String DISABLE_MODULE = "arex.disable.instrumentation.module";
     public static final String RETRANSFORM_MODULE = "arex.retransform.instrumentation.module";
+    public static final String STARTUP_PROFILE = "arex.startup.profile";
+    public static final String AGENT_ATTACHED = "arex.agent.attached";
+    public static final String RETRANSFORM_BATCH_SIZE = "arex.retransform.batch.size";
+    public static final String RETRANSFORM_BATCH_INTERVAL = "arex.retransform.batch.interval";
+    public static final String CDS_ARCHIVE = "arex.cds.archive";
 
     public static final String EXCLUDE_SERVICE_OPERATION = "arex.exclude.service.operation";
     public static final String DUBBO_STREAM_REPLAY_THRESHOLD = "arex.dubbo.replay.threshold";
@@ -27,4 +33,6 @@ public class ConfigConstants {
     public static final String IP_VALIDATE = "arex.ip.validate";
     public static final String CURRENT_RATE = "arex.current.rate";
     public static final String DECELERATE_CODE = "arex.decelerate.code";
+    public static final String SERIALIZE_PROTOBUF_BINARY = "arex.serialize.protobuf.binary";
+    public static final String SERIALIZE_COLUMNAR_THRESHOLD = "arex.serialize.columnar.threshold";
 }
@@ -1,9 +1,7 @@
 package io.arex.agent.bootstrap.ctx;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * transmittable-thread-local simple version
@@ -11,106 +9,65 @@ import java.util.WeakHashMap;
  * 2. Support more ThreadPool（agent）
  * 3. transmittable-thread-local not work in nio.reactor.Worker（@see AbstractMultiworkerIOReactor）
  * 4. Change from InheritableThreadLocal to ThreadLocal，avoid collect unexpected data
+ * <p>
+ * Each ArexThreadLocal has a fixed index into an immutable per-thread {@link Transmitter.Snapshot},
+ * set/remove replace the snapshot (copy on write), so capture/replay/restore only swap the snapshot reference.
+ * ArexThreadLocal is expected to be a static field, the index is never reused.
  */
 public class ArexThreadLocal<T> extends ThreadLocal<T> {
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+    private static final ThreadLocal<Holder> HOLDER = ThreadLocal.withInitial(Holder::new);
+
+    private final int index;
 
     public ArexThreadLocal() {
+        this.index = NEXT_INDEX.getAndIncrement();
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public final T get() {
-        T value = super.get();
-        if (null != value) addThisToHolder();
-        return value;
+        return (T) HOLDER.get().snapshot.get(index);
     }
 
     @Override
     public final void set(T value) {
-        if (null == value) {
-            remove();
-        } else {
-            super.set(value);
-            addThisToHolder();
-        }
+        Holder holder = HOLDER.get();
+        holder.snapshot = holder.snapshot.with(index, value);
     }
 
     @Override
     public final void remove() {
-        removeThisFromHolder();
-        super.remove();
-    }
-
-    public void superRemove() {
-        super.remove();
+        set(null);
     }
 
-    public T copyValue() {
-        return get();
-    }
-
-    private static final ThreadLocal<WeakHashMap<ArexThreadLocal<Object>, ?>> holder =
-            new InheritableThreadLocal<WeakHashMap<ArexThreadLocal<Object>, ?>>() {
-                @Override
-                protected WeakHashMap<ArexThreadLocal<Object>, ?> initialValue() {
-                    return new WeakHashMap<>();
-                }
-
-                @Override
-                protected WeakHashMap<ArexThreadLocal<Object>, ?> childValue(WeakHashMap<ArexThreadLocal<Object>, ?> parentValue) {
-                    return new WeakHashMap<ArexThreadLocal<Object>, Object>(parentValue);
-                }
-            };
-
-    @SuppressWarnings("unchecked")
-    private void addThisToHolder() {
-        if (!holder.get().containsKey(this)) {
-            holder.get().put((ArexThreadLocal<Object>) this, null);
-        }
-    }
-
-    private void removeThisFromHolder() {
-        holder.get().remove(this);
+    private static final class Holder {
+        private Transmitter.Snapshot snapshot = Transmitter.Snapshot.EMPTY;
     }
 
     public static class Transmitter {
 
+        /**
+         * @return values of current thread, null if no value
+         */
         public static Object capture() {
-            HashMap<ArexThreadLocal<Object>, Object> values = captureValues();
-            return values == null ? null : new Snapshot(captureValues());
-        }
-
-        private static HashMap<ArexThreadLocal<Object>, Object> captureValues() {
-            HashMap<ArexThreadLocal<Object>, Object> values = null;
-            for (ArexThreadLocal<Object> threadLocal : holder.get().keySet()) {
-                if (null == values) {
-                    values = new HashMap<>();
-                }
-                values.put(threadLocal, threadLocal.copyValue());
-            }
-            return values;
+            Snapshot snapshot = HOLDER.get().snapshot;
+            return snapshot.count == 0 ? null : snapshot;
         }
 
+        /**
+         * Replace the values of current thread with the captured
+         *
+         * @return backup of current thread values
+         */
         public static Object replay(Object captured) {
             if (captured == null) {
                 return null;
             }
 
-            final Snapshot capturedSnapshot = (Snapshot) captured;
-            return new Snapshot(replayValues(capturedSnapshot.values));
-        }
-
-        private static HashMap<ArexThreadLocal<Object>, Object> replayValues(HashMap<ArexThreadLocal<Object>, Object> captured) {
-            HashMap<ArexThreadLocal<Object>, Object> backup = new HashMap<>();
-            for (final Iterator<ArexThreadLocal<Object>> iterator = holder.get().keySet().iterator(); iterator.hasNext(); ) {
-                ArexThreadLocal<Object> threadLocal = iterator.next();
-                backup.put(threadLocal, threadLocal.get());
-                if (!captured.containsKey(threadLocal)) {
-                    iterator.remove();
-                    threadLocal.superRemove();
-                }
-            }
-
-            setTtlTo(captured);
+            Holder holder = HOLDER.get();
+            Snapshot backup = holder.snapshot;
+            holder.snapshot = (Snapshot) captured;
             return backup;
         }
 
@@ -119,33 +76,42 @@ public class ArexThreadLocal<T> extends ThreadLocal<T> {
                 return;
             }
 
-            final Snapshot backupSnapshot = (Snapshot) backup;
-            restoreValues(backupSnapshot.values);
+            HOLDER.get().snapshot = (Snapshot) backup;
         }
 
-        private static void restoreValues(HashMap<ArexThreadLocal<Object>, Object> backup) {
-            for (final Iterator<ArexThreadLocal<Object>> iterator = holder.get().keySet().iterator(); iterator.hasNext(); ) {
-                ArexThreadLocal<Object> threadLocal = iterator.next();
-                if (!backup.containsKey(threadLocal)) {
-                    iterator.remove();
-                    threadLocal.superRemove();
-                }
-            }
-            setTtlTo(backup);
-        }
+        /**
+         * Immutable values of the ArexThreadLocals of a thread, indexed by ArexThreadLocal index
+         */
+        public static final class Snapshot {
+            static final Snapshot EMPTY = new Snapshot(new Object[0], 0);
+
+            private final Object[] values;
+            /**
+             * count of non-null values
+             */
+            private final int count;
 
-        public static void setTtlTo(HashMap<ArexThreadLocal<Object>, Object> ttlValues) {
-            for (Map.Entry<ArexThreadLocal<Object>, Object> entry : ttlValues.entrySet()) {
-                ArexThreadLocal<Object> threadLocal = entry.getKey();
-                threadLocal.set(entry.getValue());
+            private Snapshot(Object[] values, int count) {
+                this.values = values;
+                this.count = count;
             }
-        }
 
-        public static class Snapshot {
-            final HashMap<ArexThreadLocal<Object>, Object> values;
+            Object get(int index) {
+                return index < values.length ? values[index] : null;
+            }
 
-            public Snapshot(HashMap<ArexThreadLocal<Object>, Object> values) {
-                this.values = values;
+            Snapshot with(int index, Object value) {
+                Object oldValue = get(index);
+                if (oldValue == value) {
+                    return this;
+                }
+                int newCount = count + (oldValue == null ? 1 : 0) - (value == null ? 1 : 0);
+                if (newCount == 0) {
+                    return EMPTY;
+                }
+                Object[] newValues = Arrays.copyOf(values, Math.max(values.length, index + 1));
+                newValues[index] = value;
+                return new Snapshot(newValues, newCount);
             }
         }
 
@@ -0,0 +1,104 @@
+package io.arex.agent.bootstrap.ctx;
+
+import java.util.Arrays;
+
+/**
+ * Trace id of 128 bits held as two longs (wall clock millis and counter) under the host prefix of the generator,
+ * rendered to AREX-{ip}-{millis}{counter} only when the text is needed (record id of the mockers, headers)
+ * and then kept. Hashing and equality of the generated ids use the longs, so the id can be a map key
+ * without being rendered.
+ * An id received as text (eg: the replay case id) is held as is, it never equals a generated id.
+ */
+public final class TraceId {
+    /**
+     * max decimal digits of a long
+     */
+    private static final int MAX_LONG_DIGITS = 19;
+
+    /**
+     * AREX-{ip}- shared by the ids of the same generator, null if the id is received as text
+     */
+    private final char[] prefix;
+    private final long high;
+    private final long low;
+    private String text;
+
+    public TraceId(char[] prefix, long high, long low) {
+        this.prefix = prefix;
+        this.high = high;
+        this.low = low;
+    }
+
+    private TraceId(String text) {
+        this.prefix = null;
+        this.high = 0L;
+        this.low = 0L;
+        this.text = text;
+    }
+
+    public static TraceId of(String text) {
+        return text == null ? null : new TraceId(text);
+    }
+
+    @Override
+    public String toString() {
+        // benign race like String.hashCode, each thread renders the same text
+        String rendered = text;
+        if (rendered == null) {
+            rendered = render();
+            text = rendered;
+        }
+        return rendered;
+    }
+
+    private String render() {
+        char[] chars = new char[prefix.length + MAX_LONG_DIGITS * 2];
+        System.arraycopy(prefix, 0, chars, 0, prefix.length);
+        int length = writeDigits(chars, prefix.length, high);
+        length = writeDigits(chars, length, low);
+        return new String(chars, 0, length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TraceId)) return false;
+
+        TraceId that = (TraceId) o;
+        if (prefix == null || that.prefix == null) {
+            return prefix == that.prefix && text.equals(that.text);
+        }
+        return high == that.high && low == that.low
+                && (prefix == that.prefix || Arrays.equals(prefix, that.prefix));
+    }
+
+    @Override
+    public int hashCode() {
+        if (prefix == null) {
+            return text.hashCode();
+        }
+        long hash = high * 31 + low;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * @return end index of the digits
+     */
+    private static int writeDigits(char[] chars, int offset, long value) {
+        int end = offset + digitCount(value);
+        for (int i = end - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static int digitCount(long value) {
+        int count = 1;
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+}
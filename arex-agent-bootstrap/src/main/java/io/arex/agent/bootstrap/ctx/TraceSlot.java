@@ -0,0 +1,38 @@
+package io.arex.agent.bootstrap.ctx;
+
+/**
+ * Value of the trace thread local, transmitted to the child threads of the same trace.
+ * The runtime attaches its context object here, so the current context is resolved
+ * by the thread local read instead of a lookup by trace id.
+ */
+public final class TraceSlot {
+    private final TraceId traceId;
+    private volatile Object context;
+
+    public TraceSlot(String traceId) {
+        this(TraceId.of(traceId));
+    }
+
+    public TraceSlot(TraceId traceId) {
+        this.traceId = traceId;
+    }
+
+    /**
+     * @return the rendered trace id
+     */
+    public String getTraceId() {
+        return traceId.toString();
+    }
+
+    public TraceId getId() {
+        return traceId;
+    }
+
+    public Object getContext() {
+        return context;
+    }
+
+    public void attach(Object context) {
+        this.context = context;
+    }
+}
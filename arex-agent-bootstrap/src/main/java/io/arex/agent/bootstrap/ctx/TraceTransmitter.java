@@ -1,35 +1,36 @@
 package io.arex.agent.bootstrap.ctx;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 public class TraceTransmitter implements AutoCloseable {
+    private static final AtomicReferenceFieldUpdater<TraceTransmitter, Object> CAPTURE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(TraceTransmitter.class, Object.class, "capture");
+    private static final AtomicReferenceFieldUpdater<TraceTransmitter, Object> BACKUP_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(TraceTransmitter.class, Object.class, "backup");
 
-    private final AtomicReference<Object> captureRef;
-    private AtomicReference<Object> backupRef;
+    private volatile Object capture;
+    private volatile Object backup;
 
     private TraceTransmitter() {
-        this.captureRef = null;
-        this.backupRef = null;
     }
 
     private TraceTransmitter(Object capture) {
-        this.captureRef = new AtomicReference<>(capture);
-        this.backupRef = new AtomicReference<>();
+        this.capture = capture;
     }
 
     public TraceTransmitter transmit() {
-        Object capture = captureRef.getAndSet(null);
-        if (capture != null) {
-            backupRef.set(ArexThreadLocal.Transmitter.replay(capture));
+        Object captured = CAPTURE_UPDATER.getAndSet(this, null);
+        if (captured != null) {
+            this.backup = ArexThreadLocal.Transmitter.replay(captured);
         }
         return this;
     }
 
     @Override
     public void close() {
-        Object backup = backupRef.getAndSet(null);
-        if (backup != null) {
-            ArexThreadLocal.Transmitter.restore(backup);
+        Object backupValues = BACKUP_UPDATER.getAndSet(this, null);
+        if (backupValues != null) {
+            ArexThreadLocal.Transmitter.restore(backupValues);
         }
     }
 
@@ -53,4 +54,4 @@ public class TraceTransmitter implements AutoCloseable {
         public void close() {
         }
     }
- }
\ No newline at end of file
+ }
@@ -2,23 +2,39 @@ package io.arex.agent.bootstrap.internal;
 
 public interface Cache<K, V> {
 
-    Cache<Object, Object> CAPTURED_CACHE = weakMap();
+    Cache<Object, Object> CAPTURED_CACHE = stripedWeakMap();
 
     static <K, V> Cache<K, V> weakMap() {
         return new WeakCache<>();
     }
 
+    /**
+     * Weak map split by key identity hash, each stripe has its own reference queue
+     */
+    static <K, V> Cache<K, V> stripedWeakMap() {
+        return new StripedWeakCache<>();
+    }
+
     static <V> Cache<String, V> trieCache() {
         return new TrieCache<>();
     }
 
+    /**
+     * @deprecated the init prefix is ignored, use {@link #trieCache()}
+     */
+    @Deprecated
     static <V> Cache<String, V> trieCacheWithInit(String init) {
-        return new TrieCache<>(init);
+        return new TrieCache<>();
     }
 
     V get(K key);
     void put(K key, V value);
 
+    /**
+     * @return the removed value, null if absent
+     */
+    V remove(K key);
+
     void clear();
 
     boolean contains(K key);
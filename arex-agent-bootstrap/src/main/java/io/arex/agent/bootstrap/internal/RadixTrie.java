@@ -0,0 +1,274 @@
+package io.arex.agent.bootstrap.internal;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Immutable radix trie (compressed edges), children are indexed by the first char of their edge, offset by the
+ * smallest one of the node. put/remove copy the nodes of the path and return a new trie, so a trie can be read
+ * concurrently without lock, writers only publish the new trie.
+ */
+public final class RadixTrie<V> {
+    private static final char[] EMPTY_LABEL = new char[0];
+    private static final Node<?>[] EMPTY_CHILDREN = new Node<?>[0];
+    private static final RadixTrie<?> EMPTY = new RadixTrie<>(new Node<>(EMPTY_LABEL, null));
+
+    private final Node<V> root;
+
+    private RadixTrie(Node<V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> RadixTrie<V> empty() {
+        return (RadixTrie<V>) EMPTY;
+    }
+
+    public static RadixTrie<Boolean> ofPrefixes(String... prefixes) {
+        RadixTrie<Boolean> trie = empty();
+        for (String prefix : prefixes) {
+            trie = trie.put(prefix, Boolean.TRUE);
+        }
+        return trie;
+    }
+
+    /**
+     * @return the value of the key, null if absent
+     */
+    public V get(String key) {
+        if (key == null) {
+            return null;
+        }
+        Node<V> node = root;
+        int index = 0;
+        while (index < key.length()) {
+            node = node.child(key.charAt(index));
+            if (node == null || !node.labelMatches(key, index)) {
+                return null;
+            }
+            index += node.label.length;
+        }
+        return node.value;
+    }
+
+    /**
+     * @return true if a key of the trie is a prefix of the text (or the text itself)
+     */
+    public boolean hasPrefixOf(String text) {
+        if (text == null) {
+            return false;
+        }
+        Node<V> node = root;
+        int index = 0;
+        while (index < text.length()) {
+            node = node.child(text.charAt(index));
+            if (node == null || !node.labelMatches(text, index)) {
+                return false;
+            }
+            if (node.value != null) {
+                return true;
+            }
+            index += node.label.length;
+        }
+        return false;
+    }
+
+    /**
+     * Visit the values of the keys which are prefixes of the text (or the text itself), the shortest key first
+     */
+    public void forEachPrefixOf(String text, Consumer<? super V> action) {
+        if (text == null) {
+            return;
+        }
+        Node<V> node = root;
+        int index = 0;
+        while (index < text.length()) {
+            node = node.child(text.charAt(index));
+            if (node == null || !node.labelMatches(text, index)) {
+                return;
+            }
+            if (node.value != null) {
+                action.accept(node.value);
+            }
+            index += node.label.length;
+        }
+    }
+
+    /**
+     * @return a new trie with the value, this trie is not changed. empty key or null value is ignored
+     */
+    public RadixTrie<V> put(String key, V value) {
+        if (key == null || key.isEmpty() || value == null) {
+            return this;
+        }
+        return new RadixTrie<>(put(root, key, 0, value));
+    }
+
+    /**
+     * @return a new trie without the key, or this trie if the key is absent
+     */
+    public RadixTrie<V> remove(String key) {
+        if (get(key) == null) {
+            return this;
+        }
+        return new RadixTrie<>(remove(root, key, 0));
+    }
+
+    /**
+     * @return true if the trie has no key, removed keys leave no node behind
+     */
+    public boolean isEmpty() {
+        return root.children.length == 0;
+    }
+
+    private static <V> Node<V> put(Node<V> node, String key, int index, V value) {
+        if (index == key.length()) {
+            return node.withValue(value);
+        }
+        Node<V> child = node.child(key.charAt(index));
+        if (child == null) {
+            return node.withChild(new Node<>(key.substring(index).toCharArray(), value));
+        }
+        int common = child.commonPrefixLength(key, index);
+        if (common == child.label.length) {
+            return node.withChild(put(child, key, index + common, value));
+        }
+        // split the edge of the child at the common prefix
+        Node<V> middle = new Node<V>(Arrays.copyOf(child.label, common), null)
+                .withChild(child.withLabel(Arrays.copyOfRange(child.label, common, child.label.length)));
+        return node.withChild(put(middle, key, index + common, value));
+    }
+
+    /**
+     * @return the node without the key, the childless nodes without value are pruned and a node without value
+     * left with a single child is merged with it, so the trie has the same shape as if the key was never put
+     */
+    private static <V> Node<V> remove(Node<V> node, String key, int index) {
+        if (index == key.length()) {
+            return node.withValue(null);
+        }
+        char c = key.charAt(index);
+        Node<V> child = node.child(c);
+        Node<V> removed = compact(remove(child, key, index + child.label.length));
+        return removed == null ? node.withoutChild(c) : node.withChild(removed);
+    }
+
+    /**
+     * @return null if the node has neither value nor child, the node merged with its only child if it has no value
+     */
+    private static <V> Node<V> compact(Node<V> node) {
+        if (node.value != null) {
+            return node;
+        }
+        Node<V> onlyChild = null;
+        for (Node<V> child : node.children) {
+            if (child == null) {
+                continue;
+            }
+            if (onlyChild != null) {
+                return node;
+            }
+            onlyChild = child;
+        }
+        if (onlyChild == null) {
+            return null;
+        }
+        char[] label = Arrays.copyOf(node.label, node.label.length + onlyChild.label.length);
+        System.arraycopy(onlyChild.label, 0, label, node.label.length, onlyChild.label.length);
+        return onlyChild.withLabel(label);
+    }
+
+    private static final class Node<V> {
+        private final char[] label;
+        private final V value;
+        /**
+         * first char of the label of children[0]
+         */
+        private final char base;
+        private final Node<V>[] children;
+
+        @SuppressWarnings("unchecked")
+        private Node(char[] label, V value) {
+            this(label, value, (char) 0, (Node<V>[]) EMPTY_CHILDREN);
+        }
+
+        private Node(char[] label, V value, char base, Node<V>[] children) {
+            this.label = label;
+            this.value = value;
+            this.base = base;
+            this.children = children;
+        }
+
+        private Node<V> child(char c) {
+            int index = c - base;
+            return index >= 0 && index < children.length ? children[index] : null;
+        }
+
+        private boolean labelMatches(String text, int from) {
+            if (text.length() - from < label.length) {
+                return false;
+            }
+            for (int i = 1; i < label.length; i++) {
+                if (text.charAt(from + i) != label[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int commonPrefixLength(String text, int from) {
+            int max = Math.min(label.length, text.length() - from);
+            int i = 1;
+            while (i < max && text.charAt(from + i) == label[i]) {
+                i++;
+            }
+            return i;
+        }
+
+        private Node<V> withValue(V newValue) {
+            return new Node<>(label, newValue, base, children);
+        }
+
+        private Node<V> withLabel(char[] newLabel) {
+            return new Node<>(newLabel, value, base, children);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Node<V> withChild(Node<V> child) {
+            char c = child.label[0];
+            if (children.length == 0) {
+                return new Node<>(label, value, c, (Node<V>[]) new Node<?>[]{child});
+            }
+            char newBase = (char) Math.min(base, c);
+            int newLength = Math.max(base + children.length, c + 1) - newBase;
+            Node<V>[] newChildren = (Node<V>[]) new Node<?>[newLength];
+            System.arraycopy(children, 0, newChildren, base - newBase, children.length);
+            newChildren[c - newBase] = child;
+            return new Node<>(label, value, newBase, newChildren);
+        }
+
+        /**
+         * @return the node without the child of the char, the children range is trimmed to the remaining ones
+         */
+        @SuppressWarnings("unchecked")
+        private Node<V> withoutChild(char c) {
+            int removed = c - base;
+            int from = 0;
+            int to = children.length;
+            while (from < to && (from == removed || children[from] == null)) {
+                from++;
+            }
+            while (to > from && (to - 1 == removed || children[to - 1] == null)) {
+                to--;
+            }
+            if (from == to) {
+                return new Node<>(label, value, (char) 0, (Node<V>[]) EMPTY_CHILDREN);
+            }
+            Node<V>[] newChildren = Arrays.copyOfRange(children, from, to);
+            if (removed > from && removed < to) {
+                newChildren[removed - from] = null;
+            }
+            return new Node<>(label, value, (char) (base + from), newChildren);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.arex.agent.bootstrap.internal;
+
+/**
+ * Weak identity cache split into stripes by the identity hash of the key, so the puts and gets of
+ * different threads do not contend on one map and one reference queue.
+ */
+class StripedWeakCache<K, V> implements Cache<K, V> {
+    private static final int MAX_STRIPES = 64;
+    private final WeakCache<K, V>[] stripes;
+    private final int mask;
+
+    public StripedWeakCache() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    StripedWeakCache(int minStripes) {
+        int size = 1;
+        while (size < minStripes && size < MAX_STRIPES) {
+            size <<= 1;
+        }
+        this.stripes = new WeakCache[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new WeakCache<>();
+        }
+        this.mask = size - 1;
+    }
+
+    private WeakCache<K, V> stripe(K key) {
+        int hash = System.identityHashCode(key);
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    @Override
+    public V get(K key) {
+        return stripe(key).get(key);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        stripe(key).put(key, value);
+    }
+
+    @Override
+    public V remove(K key) {
+        return stripe(key).remove(key);
+    }
+
+    @Override
+    public void clear() {
+        for (WeakCache<K, V> stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    @Override
+    public boolean contains(K key) {
+        return stripe(key).contains(key);
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+}
@@ -17,13 +17,16 @@ class WeakCache<K, V> extends ReferenceQueue<K> implements Cache<K, V> {
     }
 
     public V get(K key) {
+        if (target.isEmpty()) {
+            return null;
+        }
         check();
-        return target.get(new WeakReferenceKey<>(key, this));
+        return target.get(new LookupKey<>(key));
     }
 
     public boolean contains(K key) {
         check();
-        return target.containsKey(new WeakReferenceKey<>(key, this));
+        return target.containsKey(new LookupKey<>(key));
     }
 
     public void put(K key, V value) {
@@ -34,6 +37,14 @@ class WeakCache<K, V> extends ReferenceQueue<K> implements Cache<K, V> {
         target.put(new WeakReferenceKey<>(key, this), value);
     }
 
+    public V remove(K key) {
+        if (target.isEmpty()) {
+            return null;
+        }
+        check();
+        return target.remove(new LookupKey<>(key));
+    }
+
     public void clear() {
         target.clear();
     }
@@ -68,5 +79,31 @@ class WeakCache<K, V> extends ReferenceQueue<K> implements Cache<K, V> {
             }
         }
     }
+
+    /**
+     * Key of get/remove, a plain object instead of a registered weak reference
+     */
+    static final class LookupKey<K> {
+        private final K key;
+        private final int hashCode;
+
+        LookupKey(K key) {
+            this.key = key;
+            this.hashCode = System.identityHashCode(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other instanceof WeakCache.WeakReferenceKey<?>) {
+                return ((WeakReferenceKey<?>) other).get() == key;
+            }
+            return other instanceof LookupKey<?> && ((LookupKey<?>) other).key == key;
+        }
+    }
 }
 
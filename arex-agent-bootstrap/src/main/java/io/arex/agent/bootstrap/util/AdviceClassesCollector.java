@@ -3,10 +3,15 @@ package io.arex.agent.bootstrap.util;
 import io.arex.agent.bootstrap.InstrumentationHolder;
 import io.arex.agent.bootstrap.cache.AdviceInjectorCache;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
 import net.bytebuddy.dynamic.ClassFileLocator;
 
@@ -17,6 +22,10 @@ public class AdviceClassesCollector {
     private static final String CLASS_AREX_AGENT_PREFIX = "io/arex/inst";
     private static final String CLASS_SUFFIX = ".class";
     private static final int CLASS_SUFFIX_LENGTH = CLASS_SUFFIX.length();
+    /**
+     * entry names of the advice classes and service files, generated when the agent jar is packaged
+     */
+    static final String ADVICE_INDEX = "META-INF/arex/advice.index";
 
     private AdviceClassesCollector() {
     }
@@ -31,6 +40,43 @@ public class AdviceClassesCollector {
     }
 
     private void addJarToLoaderSearch(File file, boolean isExtensionJar) {
+        try {
+            if (addIndexedJarToLoaderSearch(file, isExtensionJar)) {
+                return;
+            }
+            scanJarToLoaderSearch(file, isExtensionJar);
+        } catch (Throwable ex) {
+            System.err.printf("add jar classes to advice failed, file: %s%n", file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * @return false if the jar has no advice index
+     */
+    private boolean addIndexedJarToLoaderSearch(File file, boolean isExtensionJar) throws IOException {
+        try (JarFile jarFile = new JarFile(file, false)) {
+            JarEntry indexEntry = jarFile.getJarEntry(ADVICE_INDEX);
+            if (indexEntry == null) {
+                return false;
+            }
+            try (InputStream inputStream = jarFile.getInputStream(indexEntry);
+                 BufferedReader reader = new BufferedReader(
+                         new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+                String entryName;
+                while ((entryName = reader.readLine()) != null) {
+                    entryName = entryName.trim();
+                    if (ServiceLoader.match(entryName)) {
+                        ServiceLoader.buildCache(jarFile, entryName);
+                        continue;
+                    }
+                    addEntryToInjectorCache(entryName, isExtensionJar);
+                }
+            }
+            return true;
+        }
+    }
+
+    private void scanJarToLoaderSearch(File file, boolean isExtensionJar) throws IOException {
         try (JarInputStream jarInputStream = new JarInputStream(Files.newInputStream(file.toPath()))) {
             JarEntry jarEntry;
             do {
@@ -41,26 +87,28 @@ public class AdviceClassesCollector {
                     if (ServiceLoader.match(entryName)) {
                         ServiceLoader.buildCache(file, jarEntry, entryName);
                     }
-                    // exclude package io.arex.inst.runtime/extension, not class, and shaded class.
-                    boolean isFilterEntry = StringUtil.isEmpty(entryName) ||
-                            entryName.startsWith(EXCLUDE_CLASS_PREFIX) ||
-                            !entryName.endsWith(CLASS_SUFFIX) ||
-                            StringUtil.startWithFrom(entryName, "runtime", 13) ||
-                            StringUtil.startWithFrom(entryName, "extension", 13);
-                    if (isFilterEntry) {
-                        continue;
-                    }
-                    String className = entryName.replace('/', '.');
-                    String realClassName = className.substring(0,
-                            className.length() - CLASS_SUFFIX_LENGTH);
-                    if (isExtensionJar || entryName.startsWith(CLASS_AREX_AGENT_PREFIX)) {
-                        addClassToInjectorCache(realClassName);
-                    }
+                    addEntryToInjectorCache(entryName, isExtensionJar);
                 }
 
             } while (jarEntry != null);
-        } catch (Throwable ex) {
-            System.err.printf("add jar classes to advice failed, file: %s%n", file.getAbsolutePath());
+        }
+    }
+
+    private void addEntryToInjectorCache(String entryName, boolean isExtensionJar) {
+        // exclude package io.arex.inst.runtime/extension, not class, and shaded class.
+        boolean isFilterEntry = StringUtil.isEmpty(entryName) ||
+                entryName.startsWith(EXCLUDE_CLASS_PREFIX) ||
+                !entryName.endsWith(CLASS_SUFFIX) ||
+                StringUtil.startWithFrom(entryName, "runtime", 13) ||
+                StringUtil.startWithFrom(entryName, "extension", 13);
+        if (isFilterEntry) {
+            return;
+        }
+        String className = entryName.replace('/', '.');
+        String realClassName = className.substring(0,
+                className.length() - CLASS_SUFFIX_LENGTH);
+        if (isExtensionJar || entryName.startsWith(CLASS_AREX_AGENT_PREFIX)) {
+            addClassToInjectorCache(realClassName);
         }
     }
 
@@ -49,8 +49,25 @@ public class ServiceLoader {
      *                value: [io.arex.foundation.serializer.GsonSerializer, io.arex.foundation.serializer.JacksonSerializer]
      */
     public static void buildCache(File file, JarEntry jarEntry, String entryName) {
-        try(JarFile jarFile = new JarFile(file);
-                InputStream inputStream = jarFile.getInputStream(jarEntry)) {
+        try(JarFile jarFile = new JarFile(file)) {
+            buildCache(jarFile, jarEntry, entryName);
+        } catch (Throwable ex) {
+            System.err.printf("build spi map failed, file: %s%n", entryName);
+        }
+    }
+
+    /**
+     * Same as {@link #buildCache(File, JarEntry, String)} with an opened jar file
+     */
+    public static void buildCache(JarFile jarFile, String entryName) {
+        JarEntry jarEntry = jarFile.getJarEntry(entryName);
+        if (jarEntry != null) {
+            buildCache(jarFile, jarEntry, entryName);
+        }
+    }
+
+    private static void buildCache(JarFile jarFile, JarEntry jarEntry, String entryName) {
+        try(InputStream inputStream = jarFile.getInputStream(jarEntry)) {
             List<String> serviceList = readAllLines(inputStream);
             if (CollectionUtil.isNotEmpty(serviceList)) {
                 String className = entryName.substring(PREFIX.length());
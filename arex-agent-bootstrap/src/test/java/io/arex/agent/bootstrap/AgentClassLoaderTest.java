@@ -0,0 +1,89 @@
+package io.arex.agent.bootstrap;
+
+import static io.arex.agent.bootstrap.CreateFileCommon.getZipExtensionFile;
+import static io.arex.agent.bootstrap.CreateFileCommon.getZipFile;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AgentClassLoaderTest {
+    static AgentClassLoader loader;
+
+    @BeforeAll
+    static void setUp() {
+        loader = new AgentClassLoader(getZipFile(), null, new File[]{getZipExtensionFile()});
+    }
+
+    @AfterAll
+    static void tearDown() {
+        loader = null;
+        CreateFileCommon.clear();
+    }
+
+    @Test
+    void findResource() {
+        URL url = loader.findResource("test2.txt");
+        assertNotNull(url);
+        // the agent jar is indexed before the extension jars
+        assertEquals("jar:" + getZipFile().toURI() + "!/test2.txt", url.toString());
+        assertNull(loader.findResource("not-exist.txt"));
+    }
+
+    @Test
+    void findResources() throws Exception {
+        List<URL> urls = Collections.list(loader.findResources("test2.txt"));
+        assertEquals(2, urls.size());
+        assertTrue(urls.get(0).toString().contains(getZipFile().getName()));
+        assertTrue(urls.get(1).toString().contains(getZipExtensionFile().getName()));
+
+        assertFalse(loader.findResources("not-exist.txt").hasMoreElements());
+    }
+
+    @Test
+    void findClass() {
+        // the entry is found, the test jar has neither a manifest nor valid class bytes
+        assertThrows(Throwable.class, () -> loader.findClass("io.arex.inst.ArexTest"));
+        assertDoesNotThrow(() -> assertNull(loader.findClass("io.arex.inst.NotExist")));
+    }
+
+    @Test
+    void codeSource(@TempDir File dir) throws Exception {
+        File jar = new File(dir, "sample.jar");
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        String entryName = Sample.class.getName().replace('.', '/') + ".class";
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar), manifest);
+             InputStream in = Sample.class.getClassLoader().getResourceAsStream(entryName)) {
+            out.putNextEntry(new JarEntry(entryName));
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            out.closeEntry();
+        }
+
+        AgentClassLoader sampleLoader = new AgentClassLoader(jar, null, null);
+        Class<?> sample = sampleLoader.loadClass(Sample.class.getName());
+        assertSame(sampleLoader, sample.getClassLoader());
+        // the jar is the code source, required by class data sharing to archive the class
+        assertEquals(jar.toURI().toURL(), sample.getProtectionDomain().getCodeSource().getLocation());
+    }
+
+    static class Sample {
+    }
+}
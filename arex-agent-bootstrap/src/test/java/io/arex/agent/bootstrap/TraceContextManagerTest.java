@@ -0,0 +1,63 @@
+package io.arex.agent.bootstrap;
+
+import io.arex.agent.bootstrap.ctx.TraceId;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceContextManagerTest {
+
+    @BeforeAll
+    static void setUp() {
+        TraceContextManager.init("127.0.0.1");
+    }
+
+    @Test
+    void generateId() {
+        long before = System.currentTimeMillis();
+        String id = TraceContextManager.generateId();
+        assertTrue(id.startsWith("AREX-127-0-0-1-"));
+        String digits = id.substring("AREX-127-0-0-1-".length());
+        long millis = Long.parseLong(digits.substring(0, String.valueOf(before).length()));
+        assertTrue(millis >= before);
+
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(ids.add(TraceContextManager.generateId()));
+        }
+    }
+
+    @Test
+    void traceId() {
+        TraceContextManager.get(true);
+        TraceId id = TraceContextManager.getId();
+        TraceId same = new TraceId("AREX-127-0-0-1-".toCharArray(), 1700000000000L, 1L);
+        assertEquals(new TraceId("AREX-127-0-0-1-".toCharArray(), 1700000000000L, 1L), same);
+        assertEquals(new TraceId("AREX-127-0-0-1-".toCharArray(), 1700000000000L, 1L).hashCode(), same.hashCode());
+        assertNotEquals(new TraceId("AREX-127-0-0-2-".toCharArray(), 1700000000000L, 1L), same);
+        assertNotEquals(new TraceId("AREX-127-0-0-1-".toCharArray(), 1700000000000L, 2L), same);
+        // rendered once
+        assertEquals("AREX-127-0-0-1-17000000000001", same.toString());
+        assertSame(same.toString(), same.toString());
+        // an id received as text is not a generated one
+        assertEquals(TraceId.of("AREX-127-0-0-1-17000000000001"), TraceId.of("AREX-127-0-0-1-17000000000001"));
+        assertNotEquals(TraceId.of("AREX-127-0-0-1-17000000000001"), same);
+        assertNull(TraceId.of(null));
+
+        assertEquals(id.toString(), TraceContextManager.remove());
+    }
+
+    @Test
+    void getAndRemove() {
+        assertNull(TraceContextManager.get());
+        String traceId = TraceContextManager.get(true);
+        assertNotNull(traceId);
+        assertEquals(traceId, TraceContextManager.getSlot().getTraceId());
+        assertEquals(traceId, TraceContextManager.remove());
+        assertNull(TraceContextManager.getSlot());
+    }
+}
@@ -0,0 +1,39 @@
+package io.arex.agent.bootstrap.cache;
+
+import io.arex.agent.bootstrap.TraceContextManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeCacheTest {
+
+    @AfterEach
+    void tearDown() {
+        TraceContextManager.remove();
+    }
+
+    @Test
+    void putAndRemove() {
+        assertEquals(0L, TimeCache.get());
+        TraceContextManager.set("mock-trace-id");
+        assertEquals(0L, TimeCache.get());
+
+        TimeCache.put(1000L);
+        assertTrue(TimeCache.get() >= 1000L);
+        // other trace has no mocked time
+        TraceContextManager.set("other-trace-id");
+        assertEquals(0L, TimeCache.get());
+        TimeCache.remove();
+
+        TraceContextManager.set("mock-trace-id");
+        TimeCache.remove();
+        assertEquals(0L, TimeCache.get());
+        // removed twice
+        TimeCache.remove();
+        TimeCache.put(2000L);
+        assertTrue(TimeCache.get() >= 2000L);
+        TimeCache.remove();
+        assertEquals(0L, TimeCache.get());
+    }
+}
@@ -1,47 +1,81 @@
 package io.arex.agent.bootstrap.ctx;
 
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
-import java.util.HashMap;
-
 import static org.junit.jupiter.api.Assertions.*;
 
 class ArexThreadLocalTest {
 
     static ArexThreadLocal<String> target = null;
-
-    static HashMap<ArexThreadLocal<Object>, Object> snapshotMap = null;
+    static ArexThreadLocal<String> other = null;
 
     @BeforeAll
     static void setUp() {
         target = new ArexThreadLocal<>();
-        snapshotMap = new HashMap<>();
+        other = new ArexThreadLocal<>();
     }
 
     @AfterAll
     static void tearDown() {
         target = null;
-        snapshotMap = null;
+        other = null;
+    }
+
+    @AfterEach
+    void clear() {
+        target.remove();
+        other.remove();
     }
 
     @Test
     void capture() {
+        assertNull(ArexThreadLocal.Transmitter.capture());
         target.set("mock");
-        assertNotNull(ArexThreadLocal.Transmitter.capture());
+        Object captured = ArexThreadLocal.Transmitter.capture();
+        assertNotNull(captured);
+        // no value changed, the same snapshot is captured
+        assertSame(captured, ArexThreadLocal.Transmitter.capture());
+        target.remove();
+        assertNull(ArexThreadLocal.Transmitter.capture());
     }
 
     @Test
     void replay() {
         assertNull(ArexThreadLocal.Transmitter.replay(null));
-        assertDoesNotThrow(() -> ArexThreadLocal.Transmitter.replay(new ArexThreadLocal.Transmitter.Snapshot(snapshotMap)));
+        target.set("mock");
+        Object captured = ArexThreadLocal.Transmitter.capture();
+        target.remove();
+        other.set("other");
+
+        Object backup = ArexThreadLocal.Transmitter.replay(captured);
+        assertEquals("mock", target.get());
+        assertNull(other.get());
+
+        ArexThreadLocal.Transmitter.restore(backup);
+        assertNull(target.get());
+        assertEquals("other", other.get());
     }
 
     @Test
     void restore() {
         assertDoesNotThrow(() -> ArexThreadLocal.Transmitter.restore(null));
-        assertDoesNotThrow(() -> ArexThreadLocal.Transmitter.restore(
-                new ArexThreadLocal.Transmitter.Snapshot(snapshotMap)));
+        target.set("mock");
+        ArexThreadLocal.Transmitter.restore(ArexThreadLocal.Transmitter.Snapshot.EMPTY);
+        assertNull(target.get());
+    }
+
+    @Test
+    void setAfterCapture() {
+        target.set("mock");
+        Object captured = ArexThreadLocal.Transmitter.capture();
+        target.set("changed");
+        // captured snapshot is immutable
+        Object backup = ArexThreadLocal.Transmitter.replay(captured);
+        assertEquals("mock", target.get());
+        ArexThreadLocal.Transmitter.restore(backup);
+        assertEquals("changed", target.get());
     }
 }
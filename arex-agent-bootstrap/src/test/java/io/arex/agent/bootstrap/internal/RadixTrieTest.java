@@ -0,0 +1,123 @@
+package io.arex.agent.bootstrap.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RadixTrieTest {
+
+    @Test
+    void putAndGet() {
+        RadixTrie<String> empty = RadixTrie.empty();
+        assertTrue(empty.isEmpty());
+        RadixTrie<String> trie = empty.put("io.arex.inst.A", "A")
+                .put("io.arex.inst.AB", "AB")
+                .put("io.arex.agent.C", "C")
+                .put("io.arex.inst.", "prefix");
+        // immutable
+        assertTrue(empty.isEmpty());
+        assertNull(empty.get("io.arex.inst.A"));
+
+        assertEquals("A", trie.get("io.arex.inst.A"));
+        assertEquals("AB", trie.get("io.arex.inst.AB"));
+        assertEquals("C", trie.get("io.arex.agent.C"));
+        assertEquals("prefix", trie.get("io.arex.inst."));
+        assertNull(trie.get("io.arex."));
+        assertNull(trie.get("io.arex.inst.ABC"));
+        assertNull(trie.get("io.arex.inst.B"));
+        assertNull(trie.get(null));
+
+        assertEquals("A2", trie.put("io.arex.inst.A", "A2").get("io.arex.inst.A"));
+        assertSame(trie, trie.put("", "empty"));
+        assertSame(trie, trie.put("io.arex.D", null));
+    }
+
+    @Test
+    void childrenRange() {
+        RadixTrie<Integer> trie = RadixTrie.empty();
+        // children indexed out of the current range on both sides
+        String chars = "mz0A_$";
+        for (int i = 0; i < chars.length(); i++) {
+            trie = trie.put("key" + chars.charAt(i), i);
+        }
+        for (int i = 0; i < chars.length(); i++) {
+            assertEquals(i, trie.get("key" + chars.charAt(i)));
+        }
+        assertNull(trie.get("keyb"));
+        assertNull(trie.get("key" + Character.MAX_VALUE));
+    }
+
+    @Test
+    void hasPrefixOf() {
+        RadixTrie<Boolean> trie = RadixTrie.ofPrefixes("io.arex.", "shaded.", "sun.reflect.");
+        assertTrue(trie.hasPrefixOf("io.arex.inst.A"));
+        assertTrue(trie.hasPrefixOf("shaded."));
+        assertTrue(trie.hasPrefixOf("sun.reflect.GeneratedMethodAccessor1"));
+        assertFalse(trie.hasPrefixOf("io.arex"));
+        assertFalse(trie.hasPrefixOf("sun.misc.Unsafe"));
+        assertFalse(trie.hasPrefixOf("java.lang.String"));
+        assertFalse(trie.hasPrefixOf(null));
+    }
+
+    @Test
+    void forEachPrefixOf() {
+        RadixTrie<String> trie = RadixTrie.<String>empty().put("io.", "io").put("io.arex.", "arex")
+            .put("io.arex.inst.A", "A").put("io.netty.", "netty");
+        List<String> values = new ArrayList<>();
+        trie.forEachPrefixOf("io.arex.inst.A", values::add);
+        assertEquals(Arrays.asList("io", "arex", "A"), values);
+
+        values.clear();
+        trie.forEachPrefixOf("io.arex", values::add);
+        assertEquals(Collections.singletonList("io"), values);
+
+        values.clear();
+        trie.forEachPrefixOf("java.lang.String", values::add);
+        trie.forEachPrefixOf(null, values::add);
+        assertTrue(values.isEmpty());
+    }
+
+    @Test
+    void remove() {
+        RadixTrie<String> trie = RadixTrie.<String>empty().put("io.arex.A", "A").put("io.arex.AB", "AB");
+        assertSame(trie, trie.remove("io.arex.B"));
+        RadixTrie<String> removed = trie.remove("io.arex.A");
+        assertNull(removed.get("io.arex.A"));
+        assertEquals("AB", removed.get("io.arex.AB"));
+        assertEquals("A", trie.get("io.arex.A"));
+    }
+
+    @Test
+    void removeAll() {
+        String[] keys = {"io.arex.inst.A", "io.arex.inst.AB", "io.arex.agent.C", "io.arex.inst.", "java.lang.$",
+            "java.lang.z"};
+        RadixTrie<String> trie = RadixTrie.empty();
+        for (String key : keys) {
+            trie = trie.put(key, key);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertFalse(trie.isEmpty());
+            trie = trie.remove(keys[i]);
+            assertNull(trie.get(keys[i]));
+            // the remaining keys are still found through the pruned and merged nodes
+            for (int j = i + 1; j < keys.length; j++) {
+                assertEquals(keys[j], trie.get(keys[j]));
+                assertTrue(trie.hasPrefixOf(keys[j] + "suffix"));
+            }
+        }
+        assertTrue(trie.isEmpty());
+        assertFalse(trie.hasPrefixOf("io.arex.inst.A"));
+
+        // put after remove splits the merged edges again
+        trie = RadixTrie.<String>empty().put("io.arex.A", "A").put("io.arex.B", "B").remove("io.arex.B");
+        trie = trie.put("io.arex.C", "C");
+        assertEquals("A", trie.get("io.arex.A"));
+        assertEquals("C", trie.get("io.arex.C"));
+        assertNull(trie.get("io.arex.B"));
+        assertTrue(trie.remove("io.arex.A").remove("io.arex.C").isEmpty());
+    }
+}
@@ -0,0 +1,37 @@
+package io.arex.agent.bootstrap.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class StripedWeakCacheTest {
+
+    @Test
+    void stripeCount() {
+        assertEquals(1, new StripedWeakCache<>(0).stripeCount());
+        assertEquals(8, new StripedWeakCache<>(5).stripeCount());
+        assertEquals(64, new StripedWeakCache<>(1000).stripeCount());
+    }
+
+    @Test
+    void putGetRemove() {
+        StripedWeakCache<Object, Object> cache = new StripedWeakCache<>(4);
+        Object[] keys = new Object[32];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Object();
+            cache.put(keys[i], i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, cache.get(keys[i]));
+            assertTrue(cache.contains(keys[i]));
+        }
+        assertNull(cache.get(new Object()));
+
+        assertEquals(0, cache.remove(keys[0]));
+        assertNull(cache.remove(keys[0]));
+        assertFalse(cache.contains(keys[0]));
+
+        cache.clear();
+        assertNull(cache.get(keys[1]));
+    }
+}
@@ -0,0 +1,54 @@
+package io.arex.agent.bootstrap.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class TrieCacheTest {
+
+    @Test
+    void cache() {
+        Cache<String, String> cache = Cache.trieCache();
+        cache.put("io.arex.inst.A", "A");
+        assertTrue(cache.contains("io.arex.inst.A"));
+        assertEquals("A", cache.get("io.arex.inst.A"));
+        assertEquals("A", cache.remove("io.arex.inst.A"));
+        assertNull(cache.remove("io.arex.inst.A"));
+        assertFalse(cache.contains("io.arex.inst.A"));
+
+        cache.put("io.arex.inst.B", "B");
+        cache.clear();
+        assertNull(cache.get("io.arex.inst.B"));
+    }
+
+    @Test
+    void concurrentReadWrite() throws InterruptedException {
+        Cache<String, Integer> cache = Cache.trieCache();
+        int count = 2000;
+        AtomicBoolean failed = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            while (done.getCount() > 0) {
+                for (int i = 0; i < count; i++) {
+                    Integer value = cache.get("io.arex.inst.Class" + i);
+                    if (value != null && value != i) {
+                        failed.set(true);
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < count; i++) {
+            cache.put("io.arex.inst.Class" + i, i);
+        }
+        done.countDown();
+        reader.join();
+
+        assertFalse(failed.get());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, cache.get("io.arex.inst.Class" + i));
+        }
+    }
+}
@@ -9,8 +9,13 @@ import java.io.File;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -54,6 +59,32 @@ class AdviceClassesCollectorTest {
         assertTrue(AdviceInjectorCache.contains("io.arex.inst.ArexTest"));
     }
 
+    @Test
+    void testAddIndexedJarToLoaderSearch() throws Exception {
+        File indexedJar = CreateFileCommon.createFile("/indexed/arex-indexed-test.jar");
+        try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(indexedJar.toPath()))) {
+            putEntry(jos, AdviceClassesCollector.ADVICE_INDEX,
+                    "io/arex/inst/ArexTest.class\nio/arex/inst/runtime/Skip.class\nMETA-INF/services/indexed.Service\n");
+            putEntry(jos, "META-INF/services/indexed.Service", "indexed.ServiceImpl");
+            putEntry(jos, "META-INF/services/notIndexed.Service", "notIndexed.ServiceImpl");
+        }
+        AdviceInjectorCache.injectorCache.remove("io.arex.inst.ArexTest");
+
+        AdviceClassesCollector.INSTANCE.addJarToLoaderSearch(indexedJar);
+        assertTrue(AdviceInjectorCache.contains("io.arex.inst.ArexTest"));
+        assertFalse(AdviceInjectorCache.contains("io.arex.inst.runtime.Skip"));
+        // only the indexed entries are read, the jar is not scanned
+        assertEquals(Collections.singletonList("indexed.ServiceImpl"), ServiceLoader.SERVICE_CACHE.get("indexed.Service"));
+        assertNull(ServiceLoader.SERVICE_CACHE.get("notIndexed.Service"));
+        indexedJar.deleteOnExit();
+    }
+
+    private static void putEntry(JarOutputStream jos, String name, String content) throws Exception {
+        jos.putNextEntry(new JarEntry(name));
+        jos.write(content.getBytes(StandardCharsets.UTF_8));
+        jos.closeEntry();
+    }
+
     @Test
     void testAddJarToLoaderSearchThrowable() {
         assertDoesNotThrow(() -> AdviceClassesCollector.INSTANCE.addJarToLoaderSearch(new File("name")));
@@ -0,0 +1,78 @@
+package io.arex.agent.instrumentation;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log the pause and progress of each retransformation batch, the application threads are stopped at a safepoint
+ * while a batch is retransformed. With an interval, wait between batches to let the application catch up.
+ */
+class BatchPauseListener extends AgentBuilder.RedefinitionStrategy.Listener.Adapter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchPauseListener.class);
+
+    private final long intervalMillis;
+    private int batchIndex = -1;
+    private int batchSize;
+    private long batchStart;
+    private long maxPauseNanos;
+    private int retransformed;
+
+    BatchPauseListener() {
+        this(0);
+    }
+
+    BatchPauseListener(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public void onBatch(int index, List<Class<?>> batch, List<Class<?>> types) {
+        finishBatch(types.size());
+        if (index != AgentBuilder.RedefinitionStrategy.BatchAllocator.FIRST_BATCH && intervalMillis > 0) {
+            pause();
+        }
+        batchIndex = index;
+        batchSize = batch.size();
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void onComplete(int amount, List<Class<?>> types, Map<List<Class<?>>, Throwable> failures) {
+        finishBatch(types.size());
+        LOGGER.info("[arex] retransformed {} classes in {} batches, max pause: {} ms, failed batches: {}",
+            types.size(), amount, TimeUnit.NANOSECONDS.toMillis(maxPauseNanos), failures.size());
+    }
+
+    long getMaxPauseNanos() {
+        return maxPauseNanos;
+    }
+
+    int getRetransformed() {
+        return retransformed;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(intervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void finishBatch(int total) {
+        if (batchIndex < 0) {
+            return;
+        }
+        long pauseNanos = System.nanoTime() - batchStart;
+        maxPauseNanos = Math.max(maxPauseNanos, pauseNanos);
+        retransformed += batchSize;
+        LOGGER.info("[arex] retransform batch {}: {} classes, pause: {} ms, progress: {}/{}", batchIndex, batchSize,
+            TimeUnit.NANOSECONDS.toMillis(pauseNanos), retransformed, total);
+        batchIndex = -1;
+    }
+}
@@ -0,0 +1,112 @@
+package io.arex.agent.instrumentation;
+
+import io.arex.agent.bootstrap.constants.ConfigConstants;
+import io.arex.agent.bootstrap.util.StringUtil;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.VMOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Class data sharing (CDS) archive of the agent classes, enabled by -Darex.cds.archive=path.
+ * The classes of the agent class loader are defined with their jar as code source, so a dynamic archive
+ * (JDK 13+) includes them and the next start skips their parsing and verification.
+ * <p>
+ * The archive is reused when the jvm starts with -XX:SharedArchiveFile=path. Otherwise, if the jvm starts with
+ * -XX:+RecordDynamicDumpInfo (JDK 17+), the archive is dumped once the startup ends, the same as
+ * jcmd pid VM.cds dynamic_dump path. Neither: the jvm options to use are logged and nothing is done.
+ */
+final class ClassDataSharing {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassDataSharing.class);
+    static final long DUMP_DELAY_SECONDS = 60;
+    private static final String DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+
+    enum State {
+        /**
+         * no archive configured
+         */
+        DISABLED,
+        /**
+         * the jvm runs with the archive
+         */
+        REUSED,
+        /**
+         * the archive can be dumped by the running jvm
+         */
+        DUMPABLE,
+        /**
+         * the jvm options or the jdk do not support dumping the archive at runtime
+         */
+        UNSUPPORTED
+    }
+
+    private final String archivePath;
+
+    ClassDataSharing(String archivePath) {
+        this.archivePath = StringUtil.isEmpty(archivePath) ? null : new File(archivePath).getAbsolutePath();
+    }
+
+    static ClassDataSharing fromConfig() {
+        return new ClassDataSharing(System.getProperty(ConfigConstants.CDS_ARCHIVE));
+    }
+
+    State check() {
+        if (archivePath == null) {
+            return State.DISABLED;
+        }
+        String sharedArchive = vmOption("SharedArchiveFile");
+        if (StringUtil.isNotEmpty(sharedArchive) && archivePath.equals(new File(sharedArchive).getAbsolutePath())
+            && Boolean.parseBoolean(vmOption("UseSharedSpaces"))) {
+            LOGGER.info("[arex] class data sharing archive is reused: {}", archivePath);
+            return State.REUSED;
+        }
+        if (Boolean.parseBoolean(vmOption("RecordDynamicDumpInfo"))) {
+            return State.DUMPABLE;
+        }
+        LOGGER.info("[arex] class data sharing archive can not be dumped by the running jvm, "
+            + "start it with -XX:ArchiveClassesAtExit={} once and -XX:SharedArchiveFile={} later", archivePath,
+            archivePath);
+        return State.UNSUPPORTED;
+    }
+
+    /**
+     * @return false if the archive is not dumped, the jvm continues without it
+     */
+    boolean dump() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Object result = server.invoke(new ObjectName(DIAGNOSTIC_COMMAND), "vmCds",
+                new Object[]{new String[]{"dynamic_dump", archivePath}}, new String[]{String[].class.getName()});
+            LOGGER.info("[arex] class data sharing archive is dumped: {}, {}", archivePath, result);
+            return true;
+        } catch (Throwable e) {
+            LOGGER.warn("[arex] dump class data sharing archive failed: {}", archivePath, e);
+            return false;
+        }
+    }
+
+    String getArchivePath() {
+        return archivePath;
+    }
+
+    /**
+     * @return value of the hotspot option, null if the option or the jvm is not supported
+     */
+    static String vmOption(String name) {
+        try {
+            HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            if (bean == null) {
+                return null;
+            }
+            VMOption option = bean.getVMOption(name);
+            return option == null ? null : option.getValue();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
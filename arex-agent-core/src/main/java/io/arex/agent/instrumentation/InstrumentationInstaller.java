@@ -5,7 +5,9 @@ import io.arex.inst.extension.ModuleInstrumentation;
 import io.arex.inst.extension.MethodInstrumentation;
 import io.arex.inst.extension.TypeInstrumentation;
 import io.arex.agent.bootstrap.InstrumentationHolder;
+import io.arex.agent.bootstrap.constants.ConfigConstants;
 import io.arex.foundation.config.ConfigManager;
+import io.arex.foundation.services.TimerService;
 import io.arex.agent.bootstrap.util.CollectionUtil;
 
 import io.arex.inst.extension.matcher.IgnoredTypesMatcher;
@@ -28,24 +30,34 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.lang.instrument.Instrumentation;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("unused")
 public class InstrumentationInstaller extends BaseAgentInstaller {
     private static final Logger LOGGER = LoggerFactory.getLogger(InstrumentationInstaller.class);
     private static final String BYTECODE_DUMP_DIR = "/bytecode-dump";
+    private static final int REDEFINE_BATCH_SIZE = 100;
+    private static final long RETRANSFORM_BATCH_INTERVAL_MILLIS = 50;
     private ModuleInstrumentation dynamicModule;
     private ResettableClassFileTransformer resettableClassFileTransformer;
+    private final StartupProfiler profiler = StartupProfiler.fromConfig();
+    private final TypePoolCacheStrategy typePoolCache = new TypePoolCacheStrategy();
+    private final ModuleActivator activator;
 
     public InstrumentationInstaller(Instrumentation inst, File agentFile, String agentArgs) {
         super(inst, agentFile, agentArgs);
+        this.activator = new ModuleActivator(inst);
     }
 
     @Override
     protected ResettableClassFileTransformer transform() {
         if (ConfigManager.FIRST_TRANSFORM.compareAndSet(false, true)) {
             createDumpDirectory();
+            long installStart = System.nanoTime();
             resettableClassFileTransformer = install(getAgentBuilder(), false);
             LOGGER.info("[AREX] Agent first install successfully.");
+            scheduleStartupProfile(installStart);
+            scheduleClassDataSharing();
             return resettableClassFileTransformer;
         }
 
@@ -54,6 +66,24 @@ public class InstrumentationInstaller extends BaseAgentInstaller {
         return retransform();
     }
 
+    private void scheduleStartupProfile(long installStart) {
+        if (!profiler.isEnabled()) {
+            return;
+        }
+        profiler.installed(installStart);
+        profiler.typePoolCache(typePoolCache);
+        File reportFile = new File(agentFile.getParent(), StartupProfiler.REPORT_FILE);
+        TimerService.schedule(() -> profiler.writeReport(reportFile), StartupProfiler.REPORT_DELAY_SECONDS,
+            TimeUnit.SECONDS);
+    }
+
+    private void scheduleClassDataSharing() {
+        ClassDataSharing classDataSharing = ClassDataSharing.fromConfig();
+        if (classDataSharing.check() == ClassDataSharing.State.DUMPABLE) {
+            TimerService.schedule(classDataSharing::dump, ClassDataSharing.DUMP_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
     private ResettableClassFileTransformer retransform() {
         List<DynamicClassEntity> retransformList = ConfigManager.INSTANCE.getDynamicClassList().stream()
             .filter(item -> DynamicClassStatusEnum.RETRANSFORM == item.getStatus()).collect(Collectors.toList());
@@ -84,109 +114,163 @@ public class InstrumentationInstaller extends BaseAgentInstaller {
             return;
         }
 
-        // TODO: optimize reset abstract class
-        for (Class<?> clazz : this.instrumentation.getAllLoadedClasses()) {
-            if (resetClassSet.contains(clazz.getName())) {
-                try {
-                    ClassReloadingStrategy.of(this.instrumentation).reset(clazz);
-                    LOGGER.info("[arex] reset class successfully, name: {}", clazz.getName());
-                } catch (Exception e) {
-                    LOGGER.warn("[arex] reset class failed, name: {}", clazz.getName(), e);
-                }
+        // only the transformed classes can be reset, including the subclasses of a reset abstract class/interface
+        List<Class<?>> resetClasses = TransformedClassRegistry.INSTANCE.find(resetClassSet);
+        ClassReloadingStrategy reloadingStrategy = ClassReloadingStrategy.of(this.instrumentation);
+        for (int from = 0; from < resetClasses.size(); from += REDEFINE_BATCH_SIZE) {
+            List<Class<?>> batch = resetClasses.subList(from, Math.min(from + REDEFINE_BATCH_SIZE, resetClasses.size()));
+            long start = System.nanoTime();
+            try {
+                reloadingStrategy.reset(batch.toArray(new Class<?>[0]));
+                LOGGER.info("[arex] reset classes successfully, names: {}, pause: {} ms", batch,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (Exception e) {
+                LOGGER.warn("[arex] reset classes failed, names: {}", batch, e);
             }
         }
+        TransformedClassRegistry.INSTANCE.remove(resetClasses);
     }
 
-    private ResettableClassFileTransformer install(AgentBuilder builder, boolean retransform) {
+    private ResettableClassFileTransformer install(AgentBuilder.RedefinitionListenable.WithoutBatchStrategy builder,
+        boolean retransform) {
         List<ModuleInstrumentation> list = loadInstrumentationModules();
+        if (!retransform) {
+            for (ModuleInstrumentation module : list) {
+                if (!disabledModule(module.name()) && activator.register(module)) {
+                    LOGGER.info("[arex] instrumentation module: {} waits for packages: {}", module.name(),
+                        module.triggerPackages());
+                }
+            }
+            // before the installation, the loaded trigger classes activate their modules
+            activator.start();
+        }
+        return installModules(builder, list, retransform);
+    }
 
+    private ResettableClassFileTransformer installModules(AgentBuilder.RedefinitionListenable.WithoutBatchStrategy
+        agentBuilder, List<ModuleInstrumentation> list, boolean retransform) {
+        TypeDispatcher dispatcher = new TypeDispatcher();
+        AgentBuilder builder = agentBuilder;
+        if (retransform || Boolean.getBoolean(ConfigConstants.AGENT_ATTACHED)) {
+            builder = withRetransformBatches(agentBuilder, dispatcher);
+        }
         for (ModuleInstrumentation module : list) {
-            builder = installModule(builder, module, retransform);
+            installModule(dispatcher, module, retransform);
+        }
+        if (!TypeDispatcher.indexable()) {
+            LOGGER.warn("[arex] byte-buddy name matchers are not readable, type instrumentations are not indexed");
+        }
+        if (!dispatcher.isEmpty()) {
+            LOGGER.info("[arex] {} of {} type instrumentations are dispatched by type name",
+                dispatcher.indexedSize(), dispatcher.size());
+            builder = builder.type(profiler.rawMatcher(StartupProfiler.NAME_INDEX, dispatcher)).transform(dispatcher);
         }
         return builder.installOn(this.instrumentation);
     }
 
+    /**
+     * Retransform the loaded classes in batches with an interval between them, the safepoint pause of each batch
+     * is bounded and the application is not stalled when the agent is attached to a running jvm under load.
+     */
+    private AgentBuilder withRetransformBatches(AgentBuilder.RedefinitionListenable.WithoutBatchStrategy builder,
+        TypeDispatcher dispatcher) {
+        int batchSize = Integer.getInteger(ConfigConstants.RETRANSFORM_BATCH_SIZE, REDEFINE_BATCH_SIZE);
+        long intervalMillis = Long.getLong(ConfigConstants.RETRANSFORM_BATCH_INTERVAL,
+            RETRANSFORM_BATCH_INTERVAL_MILLIS);
+        return builder.with(new RetransformBatchAllocator(batchSize, dispatcher))
+            .with(new BatchPauseListener(intervalMillis));
+    }
+
     private List<ModuleInstrumentation> loadInstrumentationModules() {
         return ServiceLoader.load(ModuleInstrumentation.class);
     }
 
-    private AgentBuilder installModule(AgentBuilder builder, ModuleInstrumentation module, boolean retransform) {
+    private void installModule(TypeDispatcher dispatcher, ModuleInstrumentation module, boolean retransform) {
         if (disabledModule(module.name())) {
             LOGGER.warn("[arex] disabled instrumentation module: {}", module.name());
-            return builder;
+            return;
         }
 
         if (retransform) {
             if (retranformModule(module.name())) {
                 LOGGER.info("[arex] retransform instrumentation module: {}", module.name());
-                return installTypes(builder, module, module.instrumentationTypes());
+                installTypes(dispatcher, module, module.instrumentationTypes());
             }
-            return builder;
+            return;
         }
 
         LOGGER.info("[arex] installed instrumentation module: {}", module.name());
-        return installTypes(builder, module, module.instrumentationTypes());
+        installTypes(dispatcher, module, module.instrumentationTypes());
     }
 
-    private AgentBuilder installTypes(AgentBuilder builder, ModuleInstrumentation module, List<TypeInstrumentation> types) {
+    private void installTypes(TypeDispatcher dispatcher, ModuleInstrumentation module,
+        List<TypeInstrumentation> types) {
         if (CollectionUtil.isEmpty(types)) {
             LOGGER.warn("[arex] invalid instrumentation module: {}", module.name());
-            return builder;
+            return;
         }
 
         for (TypeInstrumentation inst : types) {
-            builder = installType(builder, module.matcher(), inst);
+            installType(dispatcher, module.name(), activator.matcher(module), inst);
         }
-
-        return builder;
     }
 
-    private AgentBuilder installType(AgentBuilder builder, ElementMatcher<ClassLoader> moduleMatcher,
+    /**
+     * All the type instrumentations are applied by the dispatcher in the module order, name matched types are
+     * indexed, the others are tested on every loaded class
+     */
+    private void installType(TypeDispatcher dispatcher, String moduleName, ElementMatcher<ClassLoader> moduleMatcher,
         TypeInstrumentation type) {
-        AgentBuilder.Identified identified = builder.type(type.matcher(), moduleMatcher);
+        List<AgentBuilder.Transformer> transformers = buildTransformers(moduleName, type);
+        if (!dispatcher.add(type.matcher(), moduleMatcher, transformers)) {
+            dispatcher.addUnindexed(profiler.typeMatcher(moduleName, type.matcher()), moduleMatcher, transformers);
+        }
+    }
+
+    private List<AgentBuilder.Transformer> buildTransformers(String moduleName, TypeInstrumentation type) {
+        List<AgentBuilder.Transformer> transformers = new ArrayList<>();
         AgentBuilder.Transformer transformer = type.transformer();
         if (transformer != null) {
-            identified = identified.transform(transformer);
+            transformers.add(profiler.transformer(moduleName, transformer));
         }
 
         List<MethodInstrumentation> methodAdvices = type.methodAdvices();
-        if (CollectionUtil.isEmpty(methodAdvices)) {
-            return (AgentBuilder) identified;
-        }
-
-        AgentBuilder.Identified.Extendable extBuilder = installMethod(identified, methodAdvices.get(0));
-        for (int i = 1; i < methodAdvices.size(); i++) {
-            extBuilder = installMethod(extBuilder, methodAdvices.get(i));
+        if (CollectionUtil.isNotEmpty(methodAdvices)) {
+            for (MethodInstrumentation method : methodAdvices) {
+                transformers.add(profiler.transformer(moduleName, buildAdviceTransformer(method)));
+            }
         }
-
-        return extBuilder;
+        return transformers;
     }
 
-    private AgentBuilder.Identified.Extendable installMethod(AgentBuilder.Identified builder,
-        MethodInstrumentation method) {
-        return builder.transform(new AgentBuilder.Transformer.ForAdvice()
+    private AgentBuilder.Transformer buildAdviceTransformer(MethodInstrumentation method) {
+        return new AgentBuilder.Transformer.ForAdvice()
                         .include(InstrumentationHolder.getAgentClassLoader())
                         .advice(method.getMethodMatcher(), method.getAdviceClassName())
-                        .withExceptionHandler(Advice.ExceptionHandler.Default.PRINTING));
+                        .withExceptionHandler(Advice.ExceptionHandler.Default.PRINTING);
     }
 
 
-    private AgentBuilder getAgentBuilder() {
+    private AgentBuilder.RedefinitionListenable.WithoutBatchStrategy getAgentBuilder() {
         // config may use to add some classes to be ignored in future
         long buildBegin = System.currentTimeMillis();
-        AgentBuilder builder = new AgentBuilder.Default(
+        AgentBuilder.RedefinitionListenable.WithoutBatchStrategy builder = new AgentBuilder.Default(
                 new ByteBuddy().with(MethodGraph.Compiler.ForDeclaredMethods.INSTANCE))
             .enableNativeMethodPrefix("arex_")
             .disableClassFormatChanges()
             .ignore(new IgnoredTypesMatcher())
             .with(new TransformListener())
-            .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+            .with(profiler.listener())
             .with(AgentBuilder.InitializationStrategy.NoOp.INSTANCE)
             .with(AgentBuilder.TypeStrategy.Default.REBASE)
              // https://github.com/raphw/byte-buddy/issues/1441
             .with(AgentBuilder.DescriptionStrategy.Default.POOL_FIRST)
-            .with(AgentBuilder.LocationStrategy.ForClassLoader.STRONG
-                .withFallbackTo(ClassFileLocator.ForClassLoader.ofSystemLoader()));
+            .with(typePoolCache)
+            // the cached resolutions reference their type pool and its class file locator, a weak locator
+            // does not pin the class loader keying the cache
+            .with(AgentBuilder.LocationStrategy.ForClassLoader.WEAK
+                .withFallbackTo(ClassFileLocator.ForClassLoader.ofSystemLoader()))
+            .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION);
 
         return builder;
     }
@@ -0,0 +1,162 @@
+package io.arex.agent.instrumentation;
+
+import io.arex.inst.extension.ModuleInstrumentation;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gate the modules declaring {@link ModuleInstrumentation#triggerPackages()}: the module is installed with the
+ * others, but its class loader matcher is closed, so the type matchers of absent libraries are never evaluated.
+ * The gate opens when the first class of a trigger package is defined by any class loader (or is already loaded
+ * when the agent starts).
+ * <p>
+ * The activator is a retransformation incapable transformer, the jvm calls it before the agent transformer for
+ * the same class definition. The gate is opened synchronously in the defining thread, so the class opening it and
+ * every class defined after it are transformed at their definition, there is no window running the library
+ * uninstrumented. Only observe class definitions (a prefix check per pending package), never transform, and is
+ * removed once all the modules are activated.
+ */
+final class ModuleActivator implements ClassFileTransformer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModuleActivator.class);
+
+    private final Instrumentation instrumentation;
+    private final Map<ModuleInstrumentation, Gate> gates = new ConcurrentHashMap<>();
+    /**
+     * gates not opened yet, replaced (never modified) when a gate opens
+     */
+    private volatile Gate[] pending = new Gate[0];
+    private volatile boolean started;
+
+    ModuleActivator(Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * @return false if the module has no trigger package and is active from startup
+     */
+    boolean register(ModuleInstrumentation module) {
+        List<String> triggerPackages = module.triggerPackages();
+        if (triggerPackages == null || triggerPackages.isEmpty()) {
+            return false;
+        }
+        List<String> prefixes = new ArrayList<>(triggerPackages.size());
+        for (String packageName : triggerPackages) {
+            prefixes.add(packageName.replace('.', '/') + '/');
+        }
+        Gate gate = new Gate(module.name(), prefixes.toArray(new String[0]));
+        gates.put(module, gate);
+        synchronized (this) {
+            Gate[] grown = new Gate[pending.length + 1];
+            System.arraycopy(pending, 0, grown, 0, pending.length);
+            grown[pending.length] = gate;
+            pending = grown;
+        }
+        return true;
+    }
+
+    /**
+     * @return class loader matcher of the module, closed until the module is activated
+     */
+    ElementMatcher<ClassLoader> matcher(ModuleInstrumentation module) {
+        Gate gate = gates.get(module);
+        return gate == null ? module.matcher() : gate.and(module.matcher());
+    }
+
+    boolean isActive(ModuleInstrumentation module) {
+        Gate gate = gates.get(module);
+        return gate == null || gate.open;
+    }
+
+    /**
+     * Called before the modules are installed, so the trigger classes already loaded (attach) open their gates
+     * before the loaded classes are retransformed
+     */
+    void start() {
+        if (pending.length == 0) {
+            return;
+        }
+        started = true;
+        instrumentation.addTransformer(this, false);
+        for (Class<?> clazz : instrumentation.getAllLoadedClasses()) {
+            if (pending.length == 0) {
+                break;
+            }
+            trigger(clazz.getName().replace('.', '/'));
+        }
+    }
+
+    @Override
+    public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+                            ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+        if (className != null && classBeingRedefined == null) {
+            trigger(className);
+        }
+        return null;
+    }
+
+    private void trigger(String internalName) {
+        for (Gate gate : pending) {
+            if (gate.triggeredBy(internalName)) {
+                open(gate, internalName);
+            }
+        }
+    }
+
+    private synchronized void open(Gate gate, String internalName) {
+        if (gate.open) {
+            return;
+        }
+        gate.open = true;
+        LOGGER.info("[arex] activate instrumentation module: {}, trigger class: {}", gate.moduleName, internalName);
+
+        List<Gate> remaining = new ArrayList<>(pending.length);
+        for (Gate other : pending) {
+            if (!other.open) {
+                remaining.add(other);
+            }
+        }
+        pending = remaining.toArray(new Gate[0]);
+        if (started && pending.length == 0) {
+            instrumentation.removeTransformer(this);
+        }
+    }
+
+    static final class Gate extends ElementMatcher.Junction.AbstractBase<ClassLoader> {
+        private final String moduleName;
+        private final String[] prefixes;
+        private volatile boolean open;
+
+        Gate(String moduleName, String[] prefixes) {
+            this.moduleName = moduleName;
+            this.prefixes = prefixes;
+        }
+
+        private boolean triggeredBy(String internalName) {
+            for (String prefix : prefixes) {
+                if (internalName.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean matches(ClassLoader classLoader) {
+            return open;
+        }
+
+        @Override
+        public String toString() {
+            return "activated(" + moduleName + ")";
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.arex.agent.instrumentation;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Split the loaded classes to retransform into fixed size batches, the classes named by an instrumentation
+ * (indexed by the {@link TypeDispatcher}, eg: executors, servlet, http clients) are retransformed first,
+ * then the classes matched by super type or annotation.
+ */
+class RetransformBatchAllocator implements AgentBuilder.RedefinitionStrategy.BatchAllocator {
+    private final int batchSize;
+    private final TypeDispatcher dispatcher;
+
+    RetransformBatchAllocator(int batchSize, TypeDispatcher dispatcher) {
+        this.batchSize = Math.max(1, batchSize);
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public Iterable<? extends List<Class<?>>> batch(List<Class<?>> types) {
+        List<Class<?>> ordered = new ArrayList<>(types.size());
+        List<Class<?>> others = new ArrayList<>();
+        for (Class<?> type : types) {
+            if (dispatcher.indexes(type.getName())) {
+                ordered.add(type);
+            } else {
+                others.add(type);
+            }
+        }
+        ordered.addAll(others);
+
+        List<List<Class<?>>> batches = new ArrayList<>((ordered.size() + batchSize - 1) / batchSize);
+        for (int from = 0; from < ordered.size(); from += batchSize) {
+            batches.add(ordered.subList(from, Math.min(from + batchSize, ordered.size())));
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,208 @@
+package io.arex.agent.instrumentation;
+
+import io.arex.agent.bootstrap.AgentInitializer;
+import io.arex.agent.bootstrap.constants.ConfigConstants;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.utility.JavaModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Startup profiler, enabled by -Darex.startup.profile=true.
+ * Record the time of type matching and transformation per module, the time of the whole type processing
+ * (matching, transformation, bytecode generation) per class loader, and the agent initialization time,
+ * the report is written when the startup ends (a fixed delay after the agent installed).
+ * The type instrumentations are matched together by the {@link TypeDispatcher}, the whole matching time is
+ * reported as {@link #NAME_INDEX}, the matchers which are not indexed by name are also reported per module.
+ */
+final class StartupProfiler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupProfiler.class);
+    static final String NAME_INDEX = "(name index)";
+    static final String REPORT_FILE = "arex-startup-profile.txt";
+    static final long REPORT_DELAY_SECONDS = 60;
+
+    private final boolean enabled;
+    private final Map<String, Stats> matchStats = new ConcurrentHashMap<>();
+    private final Map<String, Stats> transformStats = new ConcurrentHashMap<>();
+    private final Map<String, Stats> classLoaderStats = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<Long>> discoveryStarts = ThreadLocal.withInitial(ArrayDeque::new);
+    private volatile long installNanos;
+    private volatile long initializeNanos;
+    private volatile TypePoolCacheStrategy typePoolCache;
+
+    StartupProfiler(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    static StartupProfiler fromConfig() {
+        return new StartupProfiler(Boolean.parseBoolean(System.getProperty(ConfigConstants.STARTUP_PROFILE)));
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    ElementMatcher<TypeDescription> typeMatcher(String module, ElementMatcher<TypeDescription> matcher) {
+        if (!enabled) {
+            return matcher;
+        }
+        Stats stats = stats(matchStats, module);
+        return target -> {
+            long start = System.nanoTime();
+            try {
+                return matcher.matches(target);
+            } finally {
+                stats.add(System.nanoTime() - start);
+            }
+        };
+    }
+
+    AgentBuilder.RawMatcher rawMatcher(String name, AgentBuilder.RawMatcher matcher) {
+        if (!enabled) {
+            return matcher;
+        }
+        Stats stats = stats(matchStats, name);
+        return (typeDescription, classLoader, module, classBeingRedefined, protectionDomain) -> {
+            long start = System.nanoTime();
+            try {
+                return matcher.matches(typeDescription, classLoader, module, classBeingRedefined, protectionDomain);
+            } finally {
+                stats.add(System.nanoTime() - start);
+            }
+        };
+    }
+
+    AgentBuilder.Transformer transformer(String module, AgentBuilder.Transformer transformer) {
+        if (!enabled) {
+            return transformer;
+        }
+        Stats stats = stats(transformStats, module);
+        return (builder, typeDescription, classLoader, javaModule) -> {
+            long start = System.nanoTime();
+            try {
+                return transformer.transform(builder, typeDescription, classLoader, javaModule);
+            } finally {
+                stats.add(System.nanoTime() - start);
+            }
+        };
+    }
+
+    AgentBuilder.Listener listener() {
+        if (!enabled) {
+            return AgentBuilder.Listener.NoOp.INSTANCE;
+        }
+        return new AgentBuilder.Listener.Adapter() {
+            @Override
+            public void onDiscovery(String typeName, ClassLoader classLoader, JavaModule module, boolean loaded) {
+                discoveryStarts.get().push(System.nanoTime());
+            }
+
+            @Override
+            public void onComplete(String typeName, ClassLoader classLoader, JavaModule module, boolean loaded) {
+                Long start = discoveryStarts.get().poll();
+                if (start != null) {
+                    stats(classLoaderStats, classLoaderName(classLoader)).add(System.nanoTime() - start);
+                }
+            }
+        };
+    }
+
+    /**
+     * The first installation of the instrumentations is done
+     */
+    void installed(long installStartNanos) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        installNanos = now - installStartNanos;
+        long agentStart = AgentInitializer.getStartNanos();
+        initializeNanos = agentStart > 0 ? now - agentStart : 0;
+    }
+
+    void typePoolCache(TypePoolCacheStrategy typePoolCache) {
+        this.typePoolCache = typePoolCache;
+    }
+
+    String report() {
+        StringBuilder report = new StringBuilder(1024);
+        report.append("AREX agent startup profile").append(System.lineSeparator());
+        report.append("agent initialize (premain): ").append(toMillis(initializeNanos)).append(" ms")
+            .append(System.lineSeparator());
+        report.append("instrumentation install: ").append(toMillis(installNanos)).append(" ms")
+            .append(System.lineSeparator());
+        report.append("jvm uptime: ").append(ManagementFactory.getRuntimeMXBean().getUptime()).append(" ms")
+            .append(System.lineSeparator());
+        if (typePoolCache != null) {
+            report.append("type pool cache: ").append(typePoolCache.stats()).append(System.lineSeparator());
+        }
+        appendStats(report, "type matching by module", matchStats);
+        appendStats(report, "transformation by module", transformStats);
+        appendStats(report, "type processing by class loader", classLoaderStats);
+        return report.toString();
+    }
+
+    void writeReport(File file) {
+        if (!enabled) {
+            return;
+        }
+        String report = report();
+        try {
+            Files.write(file.toPath(), report.getBytes(StandardCharsets.UTF_8));
+            LOGGER.info("[arex] startup profile is written to {}", file.getAbsolutePath());
+        } catch (IOException e) {
+            LOGGER.warn("[arex] write startup profile failed, file: {}", file.getAbsolutePath(), e);
+            LOGGER.info(report);
+        }
+    }
+
+    private static void appendStats(StringBuilder report, String title, Map<String, Stats> statsMap) {
+        report.append(System.lineSeparator()).append(title).append(" (total ms, count)")
+            .append(System.lineSeparator());
+        List<Map.Entry<String, Stats>> entries = new ArrayList<>(statsMap.entrySet());
+        entries.sort((left, right) -> Long.compare(right.getValue().nanos.sum(), left.getValue().nanos.sum()));
+        for (Map.Entry<String, Stats> entry : entries) {
+            report.append("  ").append(entry.getKey()).append(": ")
+                .append(toMillis(entry.getValue().nanos.sum())).append(", ")
+                .append(entry.getValue().count.sum()).append(System.lineSeparator());
+        }
+    }
+
+    private static Stats stats(Map<String, Stats> statsMap, String name) {
+        return statsMap.computeIfAbsent(name, key -> new Stats());
+    }
+
+    private static String classLoaderName(ClassLoader classLoader) {
+        return classLoader == null ? "bootstrap" : classLoader.getClass().getName();
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static final class Stats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private void add(long elapsedNanos) {
+            count.increment();
+            nanos.add(elapsedNanos);
+        }
+    }
+}
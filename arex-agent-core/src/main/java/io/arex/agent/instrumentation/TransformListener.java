@@ -14,6 +14,7 @@ public class TransformListener  extends AgentBuilder.Listener.Adapter {
     @Override
     public void onTransformation(TypeDescription typeDescription, ClassLoader classLoader, JavaModule module,
         boolean loaded, DynamicType dynamicType) {
+        TransformedClassRegistry.INSTANCE.record(typeDescription.getName(), classLoader);
         LOGGER.info("[arex] onTransformation: {} loaded: {} from classLoader {}", typeDescription.getName(), loaded, classLoader);
     }
 
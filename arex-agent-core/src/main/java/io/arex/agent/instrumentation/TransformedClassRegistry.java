@@ -0,0 +1,171 @@
+package io.arex.agent.instrumentation;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classes transformed by the agent, fed by {@link TransformListener}.
+ * Reset/retransform look up the classes here instead of scanning all the loaded classes.
+ * The listener only knows the name and the class loader (the class is not defined yet when it is transformed),
+ * the class is resolved by name once on the first lookup and then weakly referenced.
+ * Entries of unloaded classes (or class loaders) are purged on lookup.
+ */
+final class TransformedClassRegistry {
+    static final TransformedClassRegistry INSTANCE = new TransformedClassRegistry();
+
+    /**
+     * class name -> transformed classes of this name, one per defining class loader
+     */
+    private final Map<String, List<Entry>> transformedClasses = new ConcurrentHashMap<>();
+
+    void record(String className, ClassLoader classLoader) {
+        if (className == null) {
+            return;
+        }
+        transformedClasses.compute(className, (key, entries) -> {
+            if (entries != null) {
+                for (Entry entry : entries) {
+                    if (entry.isLoadedBy(classLoader)) {
+                        return entries;
+                    }
+                }
+            }
+            List<Entry> list = entries == null ? new ArrayList<>(1) : new ArrayList<>(entries);
+            list.add(new Entry(classLoader));
+            return list;
+        });
+    }
+
+    int size() {
+        return transformedClasses.size();
+    }
+
+    /**
+     * @param classNames class names, a transformed class matches if its name or one of its super types is in it
+     * @return the loaded transformed classes matching the names
+     */
+    List<Class<?>> find(Set<String> classNames) {
+        List<Class<?>> classes = new ArrayList<>();
+        for (Map.Entry<String, List<Entry>> mapEntry : transformedClasses.entrySet()) {
+            boolean cleared = false;
+            for (Entry entry : mapEntry.getValue()) {
+                Class<?> clazz = entry.resolve(mapEntry.getKey());
+                if (clazz == null) {
+                    cleared |= entry.isCleared();
+                } else if (classNames.contains(clazz.getName()) || hasSuperType(clazz, classNames)) {
+                    classes.add(clazz);
+                }
+            }
+            if (cleared) {
+                purge(mapEntry.getKey());
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Remove the classes (eg: after they are reset to the original bytecode)
+     */
+    void remove(Collection<Class<?>> classes) {
+        for (Class<?> clazz : classes) {
+            transformedClasses.computeIfPresent(clazz.getName(), (key, entries) -> {
+                List<Entry> list = new ArrayList<>(entries.size());
+                for (Entry entry : entries) {
+                    if (!entry.is(clazz)) {
+                        list.add(entry);
+                    }
+                }
+                return list.isEmpty() ? null : list;
+            });
+        }
+    }
+
+    void clear() {
+        transformedClasses.clear();
+    }
+
+    private void purge(String className) {
+        transformedClasses.computeIfPresent(className, (key, entries) -> {
+            List<Entry> list = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                if (!entry.isCleared()) {
+                    list.add(entry);
+                }
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private static boolean hasSuperType(Class<?> clazz, Set<String> classNames) {
+        Class<?> superClass = clazz.getSuperclass();
+        if (superClass != null && (classNames.contains(superClass.getName()) || hasSuperType(superClass, classNames))) {
+            return true;
+        }
+        for (Class<?> interfaceClass : clazz.getInterfaces()) {
+            if (classNames.contains(interfaceClass.getName()) || hasSuperType(interfaceClass, classNames)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A transformed class, the class loader is referenced until the class is resolved, then the class itself
+     */
+    static final class Entry {
+        private final boolean bootstrap;
+        private final WeakReference<ClassLoader> classLoader;
+        private volatile WeakReference<Class<?>> type;
+
+        Entry(ClassLoader classLoader) {
+            this.bootstrap = classLoader == null;
+            this.classLoader = bootstrap ? null : new WeakReference<>(classLoader);
+        }
+
+        boolean isLoadedBy(ClassLoader loader) {
+            return bootstrap ? loader == null : loader != null && classLoader.get() == loader;
+        }
+
+        boolean is(Class<?> clazz) {
+            WeakReference<Class<?>> reference = type;
+            return reference != null ? reference.get() == clazz : isLoadedBy(clazz.getClassLoader());
+        }
+
+        /**
+         * @return true if the class (or its class loader before it is resolved) is unloaded
+         */
+        boolean isCleared() {
+            WeakReference<Class<?>> reference = type;
+            if (reference != null) {
+                return reference.get() == null;
+            }
+            return !bootstrap && classLoader.get() == null;
+        }
+
+        /**
+         * @return null if the class is unloaded or not defined by the class loader
+         */
+        Class<?> resolve(String className) {
+            WeakReference<Class<?>> reference = type;
+            if (reference != null) {
+                return reference.get();
+            }
+            ClassLoader loader = bootstrap ? null : classLoader.get();
+            if (loader == null && !bootstrap) {
+                return null;
+            }
+            try {
+                Class<?> clazz = Class.forName(className, false, loader);
+                type = new WeakReference<>(clazz);
+                return clazz;
+            } catch (Throwable e) {
+                return null;
+            }
+        }
+    }
+}
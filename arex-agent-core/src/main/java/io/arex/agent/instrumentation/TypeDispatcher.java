@@ -0,0 +1,293 @@
+package io.arex.agent.instrumentation;
+
+import io.arex.agent.bootstrap.internal.RadixTrie;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.NameMatcher;
+import net.bytebuddy.matcher.StringMatcher;
+import net.bytebuddy.matcher.StringSetMatcher;
+import net.bytebuddy.utility.JavaModule;
+
+import java.lang.reflect.Field;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Single transformation of the type instrumentations, the instrumentations whose matcher is a name matcher
+ * (eg: named, namedOneOf, nameStartsWith or a disjunction of them) are indexed by exact name and name prefix,
+ * so a loaded class is only tested against the instrumentations of its name instead of every matcher.
+ * The prefixes are kept in a radix trie, the prefixes of a name are found in one walk of the name.
+ * Other matchers (hasSuperType, annotations...) are not indexable and tested on every type.
+ * The matched instrumentations are applied in the order they were added (the module order), the same as one
+ * transformation per instrumentation. The instrumentations matched by {@link #matches} are handed to the
+ * {@link #transform} that follows in the same thread, the matchers are evaluated once per type.
+ * <p>
+ * The name matchers are read by reflection from the private fields of byte-buddy, see {@link #indexable()}.
+ */
+final class TypeDispatcher implements AgentBuilder.RawMatcher, AgentBuilder.Transformer {
+    private static final Field NAME_MATCHER_FIELD = field(NameMatcher.class, "matcher");
+    private static final Field STRING_VALUE_FIELD = field(StringMatcher.class, "value");
+    private static final Field STRING_MODE_FIELD = field(StringMatcher.class, "mode");
+    private static final Field STRING_SET_FIELD = field(StringSetMatcher.class, "values");
+    private static final Field DISJUNCTION_FIELD = field(ElementMatcher.Junction.Disjunction.class, "matchers");
+
+    private final Map<String, List<Entry>> nameIndex = new HashMap<>();
+    private RadixTrie<List<Entry>> prefixIndex = RadixTrie.empty();
+    private final List<Entry> unindexedEntries = new ArrayList<>();
+    private int size;
+    private int indexedSize;
+    /**
+     * matched by the last call of {@link #matches} in the thread, taken by {@link #transform}
+     */
+    private final ThreadLocal<Candidates> lastMatch = new ThreadLocal<>();
+
+    /**
+     * @return false if a private field of the byte-buddy name matchers is not found (eg: renamed by an upgrade),
+     * then no type instrumentation is indexed
+     */
+    static boolean indexable() {
+        return NAME_MATCHER_FIELD != null && STRING_VALUE_FIELD != null && STRING_MODE_FIELD != null
+            && STRING_SET_FIELD != null && DISJUNCTION_FIELD != null;
+    }
+
+    /**
+     * @return false if the type matcher is not indexable, nothing is added (see {@link #addUnindexed})
+     */
+    boolean add(ElementMatcher<TypeDescription> typeMatcher, ElementMatcher<ClassLoader> moduleMatcher,
+                List<AgentBuilder.Transformer> transformers) {
+        List<String> names = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        if (transformers.isEmpty() || !collect(typeMatcher, names, prefixes)) {
+            return false;
+        }
+        Entry entry = new Entry(size, typeMatcher, moduleMatcher, transformers);
+        for (String name : names) {
+            nameIndex.computeIfAbsent(name, key -> new ArrayList<>(1)).add(entry);
+        }
+        for (String prefix : prefixes) {
+            List<Entry> prefixed = prefixIndex.get(prefix);
+            if (prefixed == null) {
+                prefixed = new ArrayList<>(1);
+                prefixIndex = prefixIndex.put(prefix, prefixed);
+            }
+            prefixed.add(entry);
+        }
+        size++;
+        indexedSize++;
+        return true;
+    }
+
+    /**
+     * Add an instrumentation tested on every type
+     */
+    void addUnindexed(ElementMatcher<TypeDescription> typeMatcher, ElementMatcher<ClassLoader> moduleMatcher,
+                      List<AgentBuilder.Transformer> transformers) {
+        if (transformers.isEmpty()) {
+            return;
+        }
+        unindexedEntries.add(new Entry(size, typeMatcher, moduleMatcher, transformers));
+        size++;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int indexedSize() {
+        return indexedSize;
+    }
+
+    /**
+     * @return true if the type name is indexed by a name or a prefix, the type may be matched by an instrumentation
+     */
+    boolean indexes(String typeName) {
+        return nameIndex.containsKey(typeName) || prefixIndex.hasPrefixOf(typeName);
+    }
+
+    /**
+     * A matched type is transformed right after in the same thread, the matched instrumentations are kept for it.
+     * A type matched but not transformed (eg: the loaded types collected for retransformation) leaves its match
+     * until the next match of the thread.
+     */
+    @Override
+    public boolean matches(TypeDescription typeDescription, ClassLoader classLoader, JavaModule module,
+                           Class<?> classBeingRedefined, ProtectionDomain protectionDomain) {
+        Candidates candidates = match(typeDescription, classLoader);
+        if (candidates.isEmpty()) {
+            return false;
+        }
+        lastMatch.set(candidates);
+        return true;
+    }
+
+    @Override
+    public DynamicType.Builder<?> transform(DynamicType.Builder<?> builder, TypeDescription typeDescription,
+                                            ClassLoader classLoader, JavaModule module) {
+        Candidates candidates = lastMatch.get();
+        if (candidates != null) {
+            lastMatch.remove();
+        }
+        if (candidates == null || !candidates.isFor(typeDescription, classLoader)) {
+            candidates = match(typeDescription, classLoader);
+        }
+        for (Entry entry : candidates.entries()) {
+            for (AgentBuilder.Transformer transformer : entry.transformers) {
+                builder = transformer.transform(builder, typeDescription, classLoader, module);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * @return the instrumentations matching the type, in the order they were added
+     */
+    List<Entry> candidates(TypeDescription typeDescription, ClassLoader classLoader) {
+        return match(typeDescription, classLoader).entries();
+    }
+
+    private Candidates match(TypeDescription typeDescription, ClassLoader classLoader) {
+        String name = typeDescription.getActualName();
+        Candidates candidates = new Candidates(typeDescription, classLoader);
+        List<Entry> indexed = nameIndex.get(name);
+        if (indexed != null) {
+            candidates.accept(indexed);
+        }
+        prefixIndex.forEachPrefixOf(name, candidates);
+        candidates.accept(unindexedEntries);
+        return candidates;
+    }
+
+    /**
+     * Collect the names and prefixes of a name matcher
+     *
+     * @return false if the matcher may match a type outside the names and prefixes
+     */
+    @SuppressWarnings("unchecked")
+    static boolean collect(ElementMatcher<?> matcher, List<String> names, List<String> prefixes) {
+        try {
+            if (matcher instanceof ElementMatcher.Junction.Disjunction && DISJUNCTION_FIELD != null) {
+                for (ElementMatcher<?> child : (List<ElementMatcher<?>>) DISJUNCTION_FIELD.get(matcher)) {
+                    if (!collect(child, names, prefixes)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (!(matcher instanceof NameMatcher) || NAME_MATCHER_FIELD == null) {
+                return false;
+            }
+            Object nameMatcher = NAME_MATCHER_FIELD.get(matcher);
+            if (nameMatcher instanceof StringSetMatcher && STRING_SET_FIELD != null) {
+                names.addAll((Collection<String>) STRING_SET_FIELD.get(nameMatcher));
+                return true;
+            }
+            if (nameMatcher instanceof StringMatcher && STRING_VALUE_FIELD != null && STRING_MODE_FIELD != null) {
+                String value = (String) STRING_VALUE_FIELD.get(nameMatcher);
+                Object mode = STRING_MODE_FIELD.get(nameMatcher);
+                if (mode == StringMatcher.Mode.EQUALS_FULLY) {
+                    names.add(value);
+                    return true;
+                }
+                // an empty prefix matches any type, not indexable
+                if (mode == StringMatcher.Mode.STARTS_WITH && !value.isEmpty()) {
+                    prefixes.add(value);
+                    return true;
+                }
+            }
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static Field field(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    static final class Entry {
+        private final int order;
+        private final ElementMatcher<TypeDescription> typeMatcher;
+        private final ElementMatcher<ClassLoader> moduleMatcher;
+        private final List<AgentBuilder.Transformer> transformers;
+
+        private Entry(int order, ElementMatcher<TypeDescription> typeMatcher,
+                      ElementMatcher<ClassLoader> moduleMatcher, List<AgentBuilder.Transformer> transformers) {
+            this.order = order;
+            this.typeMatcher = typeMatcher;
+            this.moduleMatcher = moduleMatcher;
+            this.transformers = transformers;
+        }
+
+        private boolean matches(TypeDescription typeDescription, ClassLoader classLoader) {
+            // class loader first, the same as byte-buddy, a closed module never evaluates its type matchers
+            return moduleMatcher.matches(classLoader) && typeMatcher.matches(typeDescription);
+        }
+    }
+
+    /**
+     * Instrumentations matching a type, in the order they were added
+     */
+    private static final class Candidates implements Consumer<List<Entry>> {
+        private final TypeDescription typeDescription;
+        private final ClassLoader classLoader;
+        private List<Entry> matched;
+        private boolean sorted = true;
+
+        private Candidates(TypeDescription typeDescription, ClassLoader classLoader) {
+            this.typeDescription = typeDescription;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public void accept(List<Entry> entries) {
+            for (Entry entry : entries) {
+                if ((matched != null && matched.contains(entry)) || !entry.matches(typeDescription, classLoader)) {
+                    continue;
+                }
+                if (matched == null) {
+                    matched = new ArrayList<>(2);
+                } else if (matched.get(matched.size() - 1).order > entry.order) {
+                    sorted = false;
+                }
+                matched.add(entry);
+            }
+        }
+
+        private boolean isEmpty() {
+            return matched == null;
+        }
+
+        private boolean isFor(TypeDescription type, ClassLoader loader) {
+            return typeDescription == type && classLoader == loader;
+        }
+
+        private List<Entry> entries() {
+            if (matched == null) {
+                return Collections.emptyList();
+            }
+            if (!sorted) {
+                matched.sort((left, right) -> Integer.compare(left.order, right.order));
+                sorted = true;
+            }
+            return matched;
+        }
+    }
+}
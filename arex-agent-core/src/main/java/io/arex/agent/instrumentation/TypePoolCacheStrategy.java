@@ -0,0 +1,140 @@
+package io.arex.agent.instrumentation;
+
+import io.arex.agent.bootstrap.internal.Cache;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.pool.TypePool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool strategy sharing the type pool cache of a class loader across transformations, so the class files of
+ * super types, interfaces and annotations are parsed once instead of for every transformed type.
+ * The caches are weakly keyed by class loader and each one is bounded with LRU eviction.
+ * A cached resolution references the type pool that created it and so the class file locator of the pool,
+ * the locator must hold the class loader weakly (see {@link AgentBuilder.LocationStrategy.ForClassLoader#WEAK}),
+ * otherwise the cache value pins its own key and the class loader is never collected.
+ */
+final class TypePoolCacheStrategy extends AgentBuilder.PoolStrategy.WithTypePoolCache {
+    static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private final int maxEntries;
+    private final Cache<ClassLoader, BoundedCacheProvider> providers = Cache.weakMap();
+    private final BoundedCacheProvider bootstrapProvider;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    TypePoolCacheStrategy() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    TypePoolCacheStrategy(int maxEntries) {
+        super(TypePool.Default.ReaderMode.FAST);
+        this.maxEntries = maxEntries;
+        this.bootstrapProvider = new BoundedCacheProvider(this);
+    }
+
+    @Override
+    protected TypePool.CacheProvider locate(ClassLoader classLoader) {
+        if (classLoader == null) {
+            return bootstrapProvider;
+        }
+        BoundedCacheProvider provider = providers.get(classLoader);
+        if (provider != null) {
+            return provider;
+        }
+        synchronized (providers) {
+            provider = providers.get(classLoader);
+            if (provider == null) {
+                provider = new BoundedCacheProvider(this);
+                providers.put(classLoader, provider);
+            }
+            return provider;
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return hits / (hits + misses), 0 if never looked up
+     */
+    double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : hit / (double) total;
+    }
+
+    String stats() {
+        return String.format("hits: %d, misses: %d, hit rate: %.2f%%", hits(), misses(), hitRate() * 100);
+    }
+
+    void clear() {
+        providers.clear();
+        bootstrapProvider.clear();
+    }
+
+    /**
+     * Equality is identity, the strategy holds caches and is never interchangeable with another instance
+     */
+    @Override
+    public boolean equals(Object other) {
+        return this == other;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    static final class BoundedCacheProvider implements TypePool.CacheProvider {
+        private final TypePoolCacheStrategy strategy;
+        private final LinkedHashMap<String, TypePool.Resolution> storage;
+
+        BoundedCacheProvider(TypePoolCacheStrategy strategy) {
+            this.strategy = strategy;
+            this.storage = new LinkedHashMap<String, TypePool.Resolution>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TypePool.Resolution> eldest) {
+                    return size() > strategy.maxEntries;
+                }
+            };
+        }
+
+        @Override
+        public synchronized TypePool.Resolution find(String name) {
+            TypePool.Resolution resolution = storage.get(name);
+            if (resolution == null) {
+                strategy.misses.increment();
+            } else {
+                strategy.hits.increment();
+            }
+            return resolution;
+        }
+
+        @Override
+        public synchronized TypePool.Resolution register(String name, TypePool.Resolution resolution) {
+            TypePool.Resolution cached = storage.get(name);
+            if (cached != null) {
+                return cached;
+            }
+            storage.put(name, resolution);
+            return resolution;
+        }
+
+        @Override
+        public synchronized void clear() {
+            storage.clear();
+        }
+
+        synchronized int size() {
+            return storage.size();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.arex.agent.instrumentation;
+
+import io.arex.agent.bootstrap.constants.ConfigConstants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassDataSharingTest {
+
+    @Test
+    void disabled() {
+        assertEquals(ClassDataSharing.State.DISABLED, new ClassDataSharing(null).check());
+        assertEquals(ClassDataSharing.State.DISABLED, new ClassDataSharing("").check());
+        assertEquals(ClassDataSharing.State.DISABLED, ClassDataSharing.fromConfig().check());
+    }
+
+    @Test
+    void unsupported(@TempDir File dir) {
+        File archive = new File(dir, "arex.jsa");
+        System.setProperty(ConfigConstants.CDS_ARCHIVE, archive.getPath());
+        try {
+            ClassDataSharing classDataSharing = ClassDataSharing.fromConfig();
+            assertEquals(archive.getAbsolutePath(), classDataSharing.getArchivePath());
+            // the test jvm neither runs with the archive nor records dynamic dump info
+            assertEquals(ClassDataSharing.State.UNSUPPORTED, classDataSharing.check());
+        } finally {
+            System.clearProperty(ConfigConstants.CDS_ARCHIVE);
+        }
+    }
+
+    @Test
+    void dump(@TempDir File dir) {
+        // fall back without exception when the jvm can not dump
+        assertDoesNotThrow(() -> new ClassDataSharing(new File(dir, "arex.jsa").getPath()).dump());
+    }
+
+    @Test
+    void vmOption() {
+        assertNull(ClassDataSharing.vmOption("NotExistOption"));
+        assertNotNull(ClassDataSharing.vmOption("UseSharedSpaces"));
+    }
+}
@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -134,6 +135,26 @@ class InstrumentationInstallerTest {
         );
     }
 
+    @Test
+    void batchPauseListener() {
+        BatchPauseListener listener = new BatchPauseListener();
+        List<Class<?>> types = java.util.Arrays.asList(String.class, Integer.class);
+        listener.onBatch(0, Collections.singletonList(String.class), types);
+        listener.onBatch(1, Collections.singletonList(Integer.class), types);
+        listener.onComplete(2, types, Collections.emptyMap());
+        assertTrue(listener.getMaxPauseNanos() >= 0);
+        assertEquals(2, listener.getRetransformed());
+
+        // wait between batches, the interval is not a part of the batch pause
+        BatchPauseListener pacing = new BatchPauseListener(20);
+        long start = System.nanoTime();
+        pacing.onBatch(0, Collections.singletonList(String.class), types);
+        pacing.onBatch(1, Collections.singletonList(Integer.class), types);
+        pacing.onComplete(2, types, Collections.emptyMap());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(pacing.getMaxPauseNanos() < TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
     @Test
     void onTransformation() {
         config.setEnableDebug("true");
@@ -141,6 +162,10 @@ class InstrumentationInstallerTest {
         TypeDescription typeDescription = Mockito.mock(TypeDescription.class);
         DynamicType dynamicType = Mockito.mock(DynamicType.class);
         listener.onTransformation(typeDescription, null, null, false, dynamicType);
+        Mockito.when(typeDescription.getName()).thenReturn("mock.Transformed");
+        listener.onTransformation(typeDescription, null, null, false, dynamicType);
+        assertTrue(TransformedClassRegistry.INSTANCE.size() > 0);
+        TransformedClassRegistry.INSTANCE.clear();
         assertDoesNotThrow(() -> listener.onError(null, null,null, false, new RuntimeException()));
         config.setEnableDebug("false");
         assertDoesNotThrow(() -> listener.onError(null, null,null, false, new RuntimeException()));
@@ -0,0 +1,138 @@
+package io.arex.agent.instrumentation;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.arex.inst.extension.ModuleInstrumentation;
+import java.lang.instrument.Instrumentation;
+import java.util.Arrays;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.ByteBuddyAgent;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.agent.builder.ResettableClassFileTransformer;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.FixedValue;
+import net.bytebuddy.matcher.ElementMatchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class ModuleActivatorTest {
+    Instrumentation instrumentation;
+    ModuleActivator activator;
+
+    @BeforeEach
+    void setUp() {
+        instrumentation = Mockito.mock(Instrumentation.class);
+        Mockito.when(instrumentation.getAllLoadedClasses()).thenReturn(new Class[]{String.class});
+        activator = new ModuleActivator(instrumentation);
+    }
+
+    @Test
+    void register() {
+        ModuleInstrumentation eager = mockModule("eager");
+        ModuleInstrumentation lazy = mockModule("lazy", "mock.lazy");
+        assertFalse(activator.register(eager));
+        assertTrue(activator.register(lazy));
+        assertTrue(activator.isActive(eager));
+        assertFalse(activator.isActive(lazy));
+        assertTrue(activator.matcher(eager).matches(null));
+        assertFalse(activator.matcher(lazy).matches(null));
+        activator.start();
+        Mockito.verify(instrumentation).addTransformer(activator, false);
+    }
+
+    @Test
+    void startWithoutLazyModule() {
+        activator.start();
+        Mockito.verify(instrumentation, Mockito.never()).addTransformer(Mockito.any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    void activateOnDefinition() {
+        ModuleInstrumentation module = mockModule("lazy", "mock.trigger", "mock.other");
+        ModuleInstrumentation shared = mockModule("shared", "mock.other");
+        activator.register(module);
+        activator.register(shared);
+        activator.start();
+
+        // same prefix, other package
+        assertNull(activator.transform(null, "mock/triggers/Type", null, null, new byte[0]));
+        // redefinition doesn't trigger
+        assertNull(activator.transform(null, "mock/trigger/Type", Object.class, null, new byte[0]));
+        assertFalse(activator.isActive(module));
+
+        // subpackage
+        assertNull(activator.transform(null, "mock/trigger/sub/Type", null, null, new byte[0]));
+        assertTrue(activator.isActive(module));
+        assertFalse(activator.isActive(shared));
+        Mockito.verify(instrumentation, Mockito.never()).removeTransformer(activator);
+
+        activator.transform(null, "mock/other/Type", null, null, new byte[0]);
+        assertTrue(activator.isActive(shared));
+        // no waiting module
+        Mockito.verify(instrumentation).removeTransformer(activator);
+    }
+
+    @Test
+    void activateLoadedTrigger() {
+        ModuleInstrumentation module = mockModule("loaded", "java.lang");
+        activator.register(module);
+        activator.start();
+        assertTrue(activator.isActive(module));
+        Mockito.verify(instrumentation).removeTransformer(activator);
+    }
+
+    /**
+     * The class activating the module is transformed at its own definition, the agent transformer
+     * is installed before the activator is added as the jvm calls the activator first anyway
+     */
+    @Test
+    void transformTriggerClass() throws Exception {
+        Instrumentation inst = ByteBuddyAgent.install();
+        ModuleActivator realActivator = new ModuleActivator(inst);
+        ModuleInstrumentation module = mockModule("window", "mock.window");
+        realActivator.register(module);
+
+        ResettableClassFileTransformer transformer = new AgentBuilder.Default()
+            .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+            .ignore(ElementMatchers.none())
+            .type(named("mock.window.Target").or(named("mock.before.Target")), realActivator.matcher(module))
+            .transform((builder, typeDescription, classLoader, javaModule) ->
+                builder.method(named("value")).intercept(FixedValue.value("instrumented")))
+            .installOn(inst);
+        try {
+            realActivator.start();
+            // matched but the module is not active yet
+            assertEquals("origin", value(define("mock.before.Target")));
+            assertFalse(realActivator.isActive(module));
+
+            assertEquals("instrumented", value(define("mock.window.Target")));
+            assertTrue(realActivator.isActive(module));
+        } finally {
+            inst.removeTransformer(realActivator);
+            transformer.reset(inst, AgentBuilder.RedefinitionStrategy.RETRANSFORMATION);
+        }
+    }
+
+    private static Class<?> define(String name) {
+        return new ByteBuddy().subclass(Object.class).name(name)
+            .defineMethod("value", String.class, Visibility.PUBLIC).intercept(FixedValue.value("origin"))
+            .make()
+            .load(ModuleActivatorTest.class.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+            .getLoaded();
+    }
+
+    private static Object value(Class<?> type) throws Exception {
+        return type.getMethod("value").invoke(type.getDeclaredConstructor().newInstance());
+    }
+
+    private static ModuleInstrumentation mockModule(String name, String... triggerPackages) {
+        ModuleInstrumentation module = Mockito.mock(ModuleInstrumentation.class);
+        Mockito.when(module.name()).thenReturn(name);
+        Mockito.when(module.matcher()).thenReturn(ElementMatchers.any());
+        Mockito.when(module.triggerPackages()).thenReturn(Arrays.asList(triggerPackages));
+        return module;
+    }
+}
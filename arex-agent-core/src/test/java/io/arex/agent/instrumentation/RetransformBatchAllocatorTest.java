@@ -0,0 +1,39 @@
+package io.arex.agent.instrumentation;
+
+import static net.bytebuddy.matcher.ElementMatchers.any;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class RetransformBatchAllocatorTest {
+
+    @Test
+    void batch() {
+        TypeDispatcher dispatcher = new TypeDispatcher();
+        dispatcher.add(named(ThreadPoolExecutor.class.getName()), any(),
+            Collections.singletonList(Mockito.mock(AgentBuilder.Transformer.class)));
+        RetransformBatchAllocator allocator = new RetransformBatchAllocator(2, dispatcher);
+
+        List<List<Class<?>>> batches = new ArrayList<>();
+        allocator.batch(Arrays.asList(String.class, Integer.class, Long.class, ThreadPoolExecutor.class))
+            .forEach(batches::add);
+
+        assertEquals(2, batches.size());
+        // the named instrumented class comes first
+        assertEquals(Arrays.asList(ThreadPoolExecutor.class, String.class), batches.get(0));
+        assertEquals(Arrays.asList(Integer.class, Long.class), batches.get(1));
+
+        assertFalse(allocator.batch(Collections.emptyList()).iterator().hasNext());
+        // invalid batch size is one class per batch
+        assertEquals(Collections.singletonList(String.class),
+            new RetransformBatchAllocator(0, dispatcher).batch(Collections.singletonList(String.class)).iterator().next());
+    }
+}
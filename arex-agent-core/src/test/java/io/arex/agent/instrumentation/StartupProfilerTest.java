@@ -0,0 +1,73 @@
+package io.arex.agent.instrumentation;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupProfilerTest {
+
+    @Test
+    void disabled() {
+        StartupProfiler profiler = new StartupProfiler(false);
+        ElementMatcher<TypeDescription> matcher = named("mock");
+        AgentBuilder.RawMatcher rawMatcher = (type, loader, module, redefined, domain) -> true;
+        AgentBuilder.Transformer transformer = (builder, type, loader, module) -> builder;
+
+        assertFalse(profiler.isEnabled());
+        assertSame(matcher, profiler.typeMatcher("module", matcher));
+        assertSame(rawMatcher, profiler.rawMatcher(StartupProfiler.NAME_INDEX, rawMatcher));
+        assertSame(transformer, profiler.transformer("module", transformer));
+        assertSame(AgentBuilder.Listener.NoOp.INSTANCE, profiler.listener());
+    }
+
+    @Test
+    void report() {
+        StartupProfiler profiler = new StartupProfiler(true);
+        TypeDescription type = TypeDescription.ForLoadedType.of(StartupProfilerTest.class);
+
+        ElementMatcher<TypeDescription> matcher = profiler.typeMatcher("match-module", named(type.getName()));
+        assertTrue(matcher.matches(type));
+        AgentBuilder.RawMatcher rawMatcher = profiler.rawMatcher(StartupProfiler.NAME_INDEX,
+            (typeDescription, loader, module, redefined, domain) -> false);
+        assertFalse(rawMatcher.matches(type, null, null, null, null));
+        AgentBuilder.Transformer transformer = profiler.transformer("transform-module",
+            (builder, typeDescription, loader, module) -> builder);
+        assertNull(transformer.transform(null, type, null, null));
+
+        AgentBuilder.Listener listener = profiler.listener();
+        listener.onDiscovery(type.getName(), null, null, false);
+        listener.onComplete(type.getName(), null, null, false);
+        profiler.installed(System.nanoTime());
+        profiler.typePoolCache(new TypePoolCacheStrategy());
+
+        String report = profiler.report();
+        assertTrue(report.contains("match-module"));
+        assertTrue(report.contains(StartupProfiler.NAME_INDEX));
+        assertTrue(report.contains("transform-module"));
+        assertTrue(report.contains("bootstrap"));
+        assertTrue(report.contains("type pool cache: hits: 0"));
+    }
+
+    @Test
+    void writeReport(@TempDir File dir) throws Exception {
+        File file = new File(dir, StartupProfiler.REPORT_FILE);
+        new StartupProfiler(false).writeReport(file);
+        assertFalse(file.exists());
+
+        new StartupProfiler(true).writeReport(file);
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(content.startsWith("AREX agent startup profile"));
+
+        // parent directory not exists, no exception
+        assertDoesNotThrow(() -> new StartupProfiler(true).writeReport(new File(new File(dir, "none"), "report")));
+    }
+}
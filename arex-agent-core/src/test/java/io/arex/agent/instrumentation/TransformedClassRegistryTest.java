@@ -0,0 +1,97 @@
+package io.arex.agent.instrumentation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TransformedClassRegistryTest {
+    TransformedClassRegistry registry = new TransformedClassRegistry();
+
+    @AfterEach
+    void tearDown() {
+        registry.clear();
+    }
+
+    @Test
+    void record() {
+        registry.record(ArrayList.class.getName(), null);
+        registry.record(ArrayList.class.getName(), null);
+        registry.record(TransformedClassRegistryTest.class.getName(), TransformedClassRegistryTest.class.getClassLoader());
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    void find() {
+        registry.record(ArrayList.class.getName(), null);
+        registry.record(TransformedClassRegistryTest.class.getName(), TransformedClassRegistryTest.class.getClassLoader());
+        // not loaded by the recorded class loader
+        registry.record("io.arex.NotExist", null);
+
+        assertEquals(Collections.singletonList(ArrayList.class),
+            registry.find(Collections.singleton(ArrayList.class.getName())));
+        // super class and interface
+        assertEquals(Collections.singletonList(ArrayList.class),
+            registry.find(Collections.singleton("java.util.AbstractList")));
+        assertEquals(Collections.singletonList(ArrayList.class),
+            registry.find(Collections.singleton(List.class.getName())));
+        assertEquals(2, registry.find(new HashSet<>(java.util.Arrays.asList(ArrayList.class.getName(),
+            TransformedClassRegistryTest.class.getName()))).size());
+        assertTrue(registry.find(Collections.singleton("io.arex.NotExist")).isEmpty());
+    }
+
+    @Test
+    void remove() {
+        registry.record(ArrayList.class.getName(), null);
+        registry.record(TransformedClassRegistryTest.class.getName(), TransformedClassRegistryTest.class.getClassLoader());
+        registry.remove(Collections.singletonList(ArrayList.class));
+        assertEquals(1, registry.size());
+        assertTrue(registry.find(Collections.singleton(ArrayList.class.getName())).isEmpty());
+        // not recorded
+        registry.remove(Collections.singletonList(String.class));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void findResolvedClass() {
+        ClassLoader loader = new URLClassLoader(new URL[0], TransformedClassRegistryTest.class.getClassLoader());
+        registry.record(Sample.class.getName(), loader);
+        // resolved by the parent, the registry references the class
+        assertEquals(Collections.singletonList(Sample.class), registry.find(Collections.singleton(Sample.class.getName())));
+        registry.remove(Collections.singletonList(Sample.class));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void purgeUnloadedClass() throws Exception {
+        WeakReference<ClassLoader> reference = recordUnloadedClass();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (reference.get() != null && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(reference.get());
+        assertTrue(registry.find(Collections.singleton(Sample.class.getName())).isEmpty());
+        assertEquals(0, registry.size());
+    }
+
+    private WeakReference<ClassLoader> recordUnloadedClass() throws Exception {
+        URL classPath = Sample.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader loader = new URLClassLoader(new URL[]{classPath}, null);
+        registry.record(Sample.class.getName(), loader);
+        List<Class<?>> classes = registry.find(Collections.singleton(Sample.class.getName()));
+        assertEquals(1, classes.size());
+        assertNotSame(Sample.class, classes.get(0));
+        return new WeakReference<>(loader);
+    }
+
+    static class Sample {
+    }
+}
@@ -0,0 +1,187 @@
+package io.arex.agent.instrumentation;
+
+import static net.bytebuddy.matcher.ElementMatchers.any;
+import static net.bytebuddy.matcher.ElementMatchers.hasSuperType;
+import static net.bytebuddy.matcher.ElementMatchers.nameStartsWith;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.namedOneOf;
+import static net.bytebuddy.matcher.ElementMatchers.none;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.instrument.Instrumentation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.ByteBuddyAgent;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.agent.builder.ResettableClassFileTransformer;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.FixedValue;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+class TypeDispatcherTest {
+
+    /**
+     * The fields are private to byte-buddy, if an upgrade renames them nothing is indexed anymore
+     */
+    @Test
+    void indexable() {
+        assertTrue(TypeDispatcher.indexable(), "byte-buddy name matcher fields are not found");
+        List<String> names = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        assertTrue(TypeDispatcher.collect(named("a.A"), names, prefixes), "named is not indexed");
+        assertTrue(TypeDispatcher.collect(namedOneOf("b.B", "c.C"), names, prefixes), "namedOneOf is not indexed");
+        assertTrue(TypeDispatcher.collect(nameStartsWith("d."), names, prefixes), "nameStartsWith is not indexed");
+        assertTrue(TypeDispatcher.collect(named("e.E").or(named("f.F")), names, prefixes), "or is not indexed");
+        assertEquals(java.util.Arrays.asList("a.A", "b.B", "c.C", "e.E", "f.F"), sorted(names));
+        assertEquals(Collections.singletonList("d."), prefixes);
+    }
+
+    @Test
+    void collect() {
+        List<String> names = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        assertTrue(TypeDispatcher.collect(named("a.A").or(namedOneOf("b.B", "c.C")).or(nameStartsWith("d.")),
+                names, prefixes));
+        assertEquals(3, names.size());
+        assertTrue(names.containsAll(java.util.Arrays.asList("a.A", "b.B", "c.C")));
+        assertEquals(Collections.singletonList("d."), prefixes);
+
+        assertFalse(TypeDispatcher.collect(hasSuperType(named("a.A")), names, prefixes));
+        assertFalse(TypeDispatcher.collect(named("a.A").and(hasSuperType(named("b.B"))), names, prefixes));
+        assertFalse(TypeDispatcher.collect(named("a.A").or(any()), names, prefixes));
+    }
+
+    @Test
+    void dispatch() {
+        TypeDispatcher dispatcher = new TypeDispatcher();
+        AgentBuilder.Transformer first = Mockito.mock(AgentBuilder.Transformer.class);
+        AgentBuilder.Transformer second = Mockito.mock(AgentBuilder.Transformer.class);
+        AgentBuilder.Transformer other = Mockito.mock(AgentBuilder.Transformer.class);
+        DynamicType.Builder<?> builder = Mockito.mock(DynamicType.Builder.class);
+        Mockito.doReturn(builder).when(first).transform(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.doReturn(builder).when(second).transform(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+        assertFalse(dispatcher.add(named(ThreadPoolExecutor.class.getName()), any(), Collections.emptyList()));
+        assertFalse(dispatcher.add(hasSuperType(named("java.util.concurrent.Executor")), any(),
+                Collections.singletonList(other)));
+        assertTrue(dispatcher.isEmpty());
+
+        assertTrue(dispatcher.add(named(ThreadPoolExecutor.class.getName()), any(), Collections.singletonList(first)));
+        assertTrue(dispatcher.add(nameStartsWith("java.util.concurrent."), any(), Collections.singletonList(second)));
+        assertTrue(dispatcher.add(named(ThreadPoolExecutor.class.getName()), none(), Collections.singletonList(other)));
+        assertEquals(3, dispatcher.size());
+
+        TypeDescription threadPool = TypeDescription.ForLoadedType.of(ThreadPoolExecutor.class);
+        assertTrue(dispatcher.matches(threadPool, null, null, null, null));
+        assertFalse(dispatcher.matches(TypeDescription.ForLoadedType.of(String.class), null, null, null, null));
+
+        // module matcher none() excludes the third
+        assertEquals(2, dispatcher.candidates(threadPool, null).size());
+        assertSame(builder, dispatcher.transform(builder, threadPool, null, null));
+        Mockito.verify(first).transform(builder, threadPool, null, null);
+        Mockito.verify(second).transform(builder, threadPool, null, null);
+        Mockito.verifyNoInteractions(other);
+    }
+
+    @Test
+    void keepAddedOrder() {
+        TypeDispatcher dispatcher = new TypeDispatcher();
+        AgentBuilder.Transformer first = Mockito.mock(AgentBuilder.Transformer.class);
+        AgentBuilder.Transformer second = Mockito.mock(AgentBuilder.Transformer.class);
+        AgentBuilder.Transformer third = Mockito.mock(AgentBuilder.Transformer.class);
+        DynamicType.Builder<?> builder = Mockito.mock(DynamicType.Builder.class);
+        for (AgentBuilder.Transformer transformer : java.util.Arrays.asList(first, second, third)) {
+            Mockito.doReturn(builder).when(transformer).transform(Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.any());
+        }
+
+        assertTrue(dispatcher.add(nameStartsWith("java.util.concurrent."), any(), Collections.singletonList(first)));
+        dispatcher.addUnindexed(hasSuperType(named("java.util.concurrent.Executor")), any(),
+            Collections.singletonList(second));
+        assertTrue(dispatcher.add(named(ThreadPoolExecutor.class.getName()), any(), Collections.singletonList(third)));
+        // not matched, not indexed
+        dispatcher.addUnindexed(none(), any(), Collections.singletonList(third));
+        assertEquals(4, dispatcher.size());
+        assertEquals(2, dispatcher.indexedSize());
+
+        TypeDescription threadPool = TypeDescription.ForLoadedType.of(ThreadPoolExecutor.class);
+        assertEquals(3, dispatcher.candidates(threadPool, null).size());
+        dispatcher.transform(builder, threadPool, null, null);
+        InOrder inOrder = Mockito.inOrder(first, second, third);
+        inOrder.verify(first).transform(builder, threadPool, null, null);
+        inOrder.verify(second).transform(builder, threadPool, null, null);
+        inOrder.verify(third).transform(builder, threadPool, null, null);
+        inOrder.verifyNoMoreInteractions();
+
+        // matched by the unindexed instrumentation only
+        assertEquals(1, dispatcher.candidates(TypeDescription.ForLoadedType.of(DirectExecutor.class), null).size());
+    }
+
+    /**
+     * The matchers are evaluated once for a type matched then transformed by byte-buddy
+     */
+    @Test
+    void matchOncePerType() throws Exception {
+        TypeDispatcher dispatcher = new TypeDispatcher();
+        AtomicInteger evaluations = new AtomicInteger();
+        dispatcher.addUnindexed(target -> "mock.dispatch.Target".equals(target.getName())
+                && evaluations.incrementAndGet() > 0, any(),
+            Collections.singletonList((builder, typeDescription, classLoader, module) ->
+                builder.method(named("value")).intercept(FixedValue.value("instrumented"))));
+
+        Instrumentation instrumentation = ByteBuddyAgent.install();
+        ResettableClassFileTransformer transformer = new AgentBuilder.Default()
+            .type(dispatcher)
+            .transform(dispatcher)
+            .installOn(instrumentation);
+        try {
+            Class<?> type = new ByteBuddy().subclass(Object.class).name("mock.dispatch.Target")
+                .defineMethod("value", String.class, Visibility.PUBLIC).intercept(FixedValue.value("origin"))
+                .make()
+                .load(TypeDispatcherTest.class.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                .getLoaded();
+            assertEquals("instrumented", type.getMethod("value").invoke(type.getDeclaredConstructor().newInstance()));
+            assertEquals(1, evaluations.get());
+        } finally {
+            instrumentation.removeTransformer(transformer);
+        }
+    }
+
+    @Test
+    void indexes() {
+        TypeDispatcher dispatcher = new TypeDispatcher();
+        List<AgentBuilder.Transformer> transformers =
+                Collections.singletonList(Mockito.mock(AgentBuilder.Transformer.class));
+        dispatcher.add(named("a.A"), any(), transformers);
+        dispatcher.add(nameStartsWith("b."), any(), transformers);
+
+        assertTrue(dispatcher.indexes("a.A"));
+        assertTrue(dispatcher.indexes("b.B"));
+        assertFalse(dispatcher.indexes("c.C"));
+        // an empty prefix matches any type
+        assertFalse(dispatcher.add(nameStartsWith(""), any(), transformers));
+    }
+
+    static class DirectExecutor implements Executor {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    }
+
+    private static List<String> sorted(List<String> names) {
+        List<String> list = new ArrayList<>(names);
+        Collections.sort(list);
+        return list;
+    }
+}
@@ -0,0 +1,101 @@
+package io.arex.agent.instrumentation;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.pool.TypePool;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypePoolCacheStrategyTest {
+
+    @Test
+    void locate() {
+        TypePoolCacheStrategy strategy = new TypePoolCacheStrategy();
+        ClassLoader loader = getClass().getClassLoader();
+        assertSame(strategy.locate(loader), strategy.locate(loader));
+        assertSame(strategy.locate(null), strategy.locate(null));
+        assertNotSame(strategy.locate(null), strategy.locate(loader));
+        assertNotSame(strategy.locate(loader), strategy.locate(new URLClassLoader(new URL[0], loader)));
+    }
+
+    @Test
+    void sharedAcrossTypePools() {
+        TypePoolCacheStrategy strategy = new TypePoolCacheStrategy();
+        ClassLoader loader = getClass().getClassLoader();
+        ClassFileLocator locator = ClassFileLocator.ForClassLoader.of(loader);
+
+        TypePool first = strategy.typePool(locator, loader);
+        assertTrue(first.describe(TypePoolCacheStrategyTest.class.getName()).isResolved());
+        assertEquals(0, strategy.hits());
+        long misses = strategy.misses();
+        assertTrue(misses > 0);
+
+        // another transformation of the same class loader reuses the parsed type
+        TypePool second = strategy.typePool(locator, loader);
+        assertTrue(second.describe(TypePoolCacheStrategyTest.class.getName()).isResolved());
+        assertTrue(strategy.hits() > 0);
+        assertEquals(misses, strategy.misses());
+        assertTrue(strategy.hitRate() > 0);
+        assertTrue(strategy.stats().startsWith("hits: "));
+
+        strategy.clear();
+        assertEquals(0, ((TypePoolCacheStrategy.BoundedCacheProvider) strategy.locate(loader)).size());
+    }
+
+    @Test
+    void lruEviction() {
+        TypePoolCacheStrategy strategy = new TypePoolCacheStrategy(2);
+        assertEquals(0, strategy.hitRate());
+        TypePoolCacheStrategy.BoundedCacheProvider provider =
+            (TypePoolCacheStrategy.BoundedCacheProvider) strategy.locate(null);
+        TypePool.Resolution a = new TypePool.Resolution.Illegal("a");
+        TypePool.Resolution b = new TypePool.Resolution.Illegal("b");
+        TypePool.Resolution c = new TypePool.Resolution.Illegal("c");
+
+        assertSame(a, provider.register("a", a));
+        assertSame(a, provider.register("a", b));
+        provider.register("b", b);
+        // a is accessed, b becomes the eldest
+        assertSame(a, provider.find("a"));
+        provider.register("c", c);
+
+        assertEquals(2, provider.size());
+        assertNull(provider.find("b"));
+        assertSame(a, provider.find("a"));
+        assertSame(c, provider.find("c"));
+        assertEquals(3, strategy.hits());
+        assertEquals(1, strategy.misses());
+    }
+
+    @Test
+    void classLoaderCollected() throws Exception {
+        TypePoolCacheStrategy strategy = new TypePoolCacheStrategy();
+        WeakReference<?>[] references = describeWithDroppedLoader(strategy);
+        ClassLoader other = new URLClassLoader(new URL[0], null);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((references[0].get() != null || references[1].get() != null)
+            && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(20);
+            // lookups purge the entries of collected class loaders
+            strategy.locate(other);
+        }
+        assertNull(references[0].get(), "class loader is pinned by its type pool cache");
+        assertNull(references[1].get(), "cache provider of the collected class loader is not removed");
+    }
+
+    private static WeakReference<?>[] describeWithDroppedLoader(TypePoolCacheStrategy strategy) {
+        ClassLoader loader = new URLClassLoader(new URL[0], TypePoolCacheStrategyTest.class.getClassLoader());
+        ClassFileLocator locator = AgentBuilder.LocationStrategy.ForClassLoader.WEAK.classFileLocator(loader, null);
+        TypePool typePool = strategy.typePool(locator, loader);
+        assertTrue(typePool.describe(TypePoolCacheStrategyTest.class.getName()).resolve().getSuperClass() != null);
+        TypePool.CacheProvider provider = strategy.locate(loader);
+        assertTrue(((TypePoolCacheStrategy.BoundedCacheProvider) provider).size() > 0);
+        return new WeakReference<?>[]{new WeakReference<>(loader), new WeakReference<>(provider)};
+    }
+}
@@ -1,6 +1,7 @@
 package io.arex.agent;
 
 import io.arex.agent.bootstrap.AgentInitializer;
+import io.arex.agent.bootstrap.constants.ConfigConstants;
 
 import java.io.File;
 import java.lang.instrument.Instrumentation;
@@ -11,10 +12,12 @@ import java.util.jar.JarFile;
 public class ArexJavaAgent {
     private static final String AGENT_VERSION = "arex.agent.version";
     public static void premain(String agentArgs, Instrumentation inst) {
-        agentmain(agentArgs, inst);
+        init(inst, agentArgs);
     }
 
     public static void agentmain(String agentArgs, Instrumentation inst) {
+        // attached to a running jvm, the loaded classes are retransformed in paced batches
+        System.setProperty(ConfigConstants.AGENT_ATTACHED, Boolean.TRUE.toString());
         init(inst, agentArgs);
     }
 
@@ -4,6 +4,7 @@ import io.arex.inst.extension.matcher.ModuleVersionMatcher;
 import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
 
+import java.util.Collections;
 import java.util.List;
 
 
@@ -34,4 +35,14 @@ public abstract class ModuleInstrumentation {
     }
 
     public abstract List<TypeInstrumentation> instrumentationTypes();
+
+    /**
+     * Packages of the instrumented library (subpackages included), the module matches no type until the first
+     * class of one of them is loaded, that class included. The instrumented types must be classes of these packages
+     * or be loaded after one of them.
+     * Empty (default) means the module is active from startup.
+     */
+    public List<String> triggerPackages() {
+        return Collections.emptyList();
+    }
 }
@@ -1,5 +1,6 @@
 package io.arex.inst.extension.matcher;
 
+import io.arex.agent.bootstrap.internal.RadixTrie;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 
@@ -7,6 +8,7 @@ public class IgnoredTypesMatcher extends ElementMatcher.Junction.AbstractBase<Ty
     private static final String[] IGNORED_STARTS_WITH_NAME = new String[]{
         "io.arex.", "shaded.", IgnoreClassloaderMatcher.BYTE_BUDDY_PREFIX,
         "sun.reflect.", "org.springframework.boot.autoconfigure", "com.intellij."};
+    private static final RadixTrie<Boolean> IGNORED_PREFIX_TRIE = RadixTrie.ofPrefixes(IGNORED_STARTS_WITH_NAME);
 
     private static final String[] IGNORED_CONTAINS_NAME = new String[]{"javassist.", ".asm.", ".reflectasm."};
 
@@ -17,10 +19,8 @@ public class IgnoredTypesMatcher extends ElementMatcher.Junction.AbstractBase<Ty
         }
         String name = target.getActualName();
 
-        for (String ignored : IGNORED_STARTS_WITH_NAME) {
-            if (name.startsWith(ignored)) {
-                return true;
-            }
+        if (IGNORED_PREFIX_TRIE.hasPrefixOf(name)) {
+            return true;
         }
 
         for (String ignored : IGNORED_CONTAINS_NAME) {
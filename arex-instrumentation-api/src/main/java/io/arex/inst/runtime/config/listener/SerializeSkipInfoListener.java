@@ -33,11 +33,18 @@ public class SerializeSkipInfoListener implements ConfigListener {
 
     public void rebuildSerializer() {
         Serializer instance = Serializer.getINSTANCE();
-        StringSerializable refreshDefaultSerializer = instance.getSerializer().reCreateSerializer();
+        StringSerializable refreshDefaultSerializer = reloadSerializer(instance.getSerializer());
         Builder builder = Serializer.builder(refreshDefaultSerializer);
         for (Map.Entry<String, StringSerializable> entry : instance.getSerializers().entrySet()) {
-            builder.addSerializer(entry.getKey(), entry.getValue().reCreateSerializer());
+            builder.addSerializer(entry.getKey(), reloadSerializer(entry.getValue()));
         }
         builder.build();
     }
+
+    private StringSerializable reloadSerializer(StringSerializable serializer) {
+        if (serializer.reloadConfig()) {
+            return serializer;
+        }
+        return serializer.reCreateSerializer();
+    }
 }
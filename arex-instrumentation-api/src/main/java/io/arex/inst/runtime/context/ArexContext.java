@@ -15,6 +15,7 @@ public class ArexContext {
 
     private final String caseId;
     private final String replayId;
+    private final boolean replay;
     private final long createTime;
     private final AtomicInteger sequence;
     private Set<Integer> methodSignatureHashList;
@@ -24,6 +25,7 @@ public class ArexContext {
     private Map<String, Object> attachments = null;
 
     private boolean isRedirectRequest;
+    private volatile boolean expired;
 
     public static ArexContext of(String caseId) {
         return of(caseId, null);
@@ -38,6 +40,7 @@ public class ArexContext {
         this.caseId = caseId;
         this.sequence = new AtomicInteger(0);
         this.replayId = replayId;
+        this.replay = StringUtil.isNotEmpty(replayId);
     }
 
     public String getCaseId() {
@@ -57,7 +60,21 @@ public class ArexContext {
     }
 
     public boolean isReplay() {
-        return StringUtil.isNotEmpty(this.replayId);
+        return replay;
+    }
+
+    /**
+     * Expired context is cleared and no longer returned by {@link ContextManager}
+     */
+    boolean isExpired() {
+        return expired;
+    }
+
+    /**
+     * Flag the context as expired without clearing it, it may still be used by the thread of a long request
+     */
+    void expire() {
+        expired = true;
     }
 
     public int calculateSequence() {
@@ -130,6 +147,7 @@ public class ArexContext {
     }
 
     public void clear() {
+        expire();
         if (methodSignatureHashList != null) {
             methodSignatureHashList.clear();
         }
@@ -1,17 +1,24 @@
 package io.arex.inst.runtime.context;
 
 import io.arex.agent.bootstrap.TraceContextManager;
+import io.arex.agent.bootstrap.ctx.TraceSlot;
 import io.arex.agent.bootstrap.util.StringUtil;
 
-import java.util.Map;
-
 public class ContextManager {
-    private static final Map<String, ArexContext> RECORD_MAP = new LatencyContextHashMap();
+    static final LatencyContextHashMap RECORD_MAP = new LatencyContextHashMap();
 
     /**
      * agent call this method
      */
     public static ArexContext currentContext() {
+        // the context attached to the trace slot saves the lookup by trace id
+        TraceSlot slot = TraceContextManager.getSlot();
+        if (slot != null) {
+            ArexContext context = (ArexContext) slot.getContext();
+            if (context != null) {
+                return context.isExpired() ? null : context;
+            }
+        }
         return currentContext(false, null);
     }
 
@@ -25,6 +32,7 @@ public class ContextManager {
             ArexContext context = ArexContext.of(caseId, TraceContextManager.generateId());
             // Each replay init generates the latest context(maybe exist previous recorded context)
             RECORD_MAP.put(caseId, context);
+            attach(caseId, context);
             return context;
         }
 
@@ -34,10 +42,16 @@ public class ContextManager {
             return null;
         }
         // first init execute
-        if (createIfAbsent) {
-            return RECORD_MAP.computeIfAbsent(caseId, ArexContext::of);
+        ArexContext context = createIfAbsent ? RECORD_MAP.computeIfAbsent(caseId, ArexContext::of) : RECORD_MAP.get(caseId);
+        attach(caseId, context);
+        return context;
+    }
+
+    private static void attach(String caseId, ArexContext context) {
+        TraceSlot slot = TraceContextManager.getSlot();
+        if (context != null && slot != null && caseId.equals(slot.getTraceId())) {
+            slot.attach(context);
         }
-        return RECORD_MAP.get(caseId);
     }
 
     public static ArexContext getRecordContext(String recordId) {
@@ -1,17 +1,25 @@
 package io.arex.inst.runtime.context;
 
-import java.util.Map;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Only used for ContextManager
+ * <p>
+ * Every context is scheduled in a timer wheel by its create time, the wheel is advanced on put/remove
+ * and only evicts the contexts of the elapsed ticks, so the expiry cost is O(1) per context instead of
+ * scanning the whole map.
  */
 final class LatencyContextHashMap extends ConcurrentHashMap<String, ArexContext> {
-    private static final int CLEANUP_THRESHOLD = 10;
     private static final long RECORD_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
-    private static final ReentrantLock CLEANUP_LOCK = new ReentrantLock();
+    private final transient ExpiryWheel expiryWheel = new ExpiryWheel(RECORD_TTL_MILLIS);
     private ConcurrentHashMap<String, ArexContext> latencyMap;
 
     @Override
@@ -20,12 +28,39 @@ final class LatencyContextHashMap extends ConcurrentHashMap<String, ArexContext>
         return context == null ? initOrGet(key) : context;
     }
 
+    @Override
+    public ArexContext put(String key, ArexContext value) {
+        ArexContext previous = super.put(key, value);
+        expiryWheel.schedule(key, value, false);
+        overdueCleanUp(System.currentTimeMillis());
+        return previous;
+    }
+
+    @Override
+    public ArexContext computeIfAbsent(String key, Function<? super String, ? extends ArexContext> mappingFunction) {
+        ArexContext context = super.get(key);
+        if (context != null) {
+            return context;
+        }
+        context = super.computeIfAbsent(key, k -> {
+            ArexContext created = mappingFunction.apply(k);
+            if (created != null) {
+                expiryWheel.schedule(k, created, false);
+            }
+            return created;
+        });
+        overdueCleanUp(System.currentTimeMillis());
+        return context;
+    }
+
     @Override
     public ArexContext remove(Object key) {
         ArexContext context = super.remove(key);
-        overdueCleanUp();
+        overdueCleanUp(System.currentTimeMillis());
         if (latencyMap != null && context != null) {
-            latencyMap.put(String.valueOf(key), context);
+            String latencyKey = String.valueOf(key);
+            latencyMap.put(latencyKey, context);
+            expiryWheel.schedule(latencyKey, context, true);
         }
 
         return context;
@@ -39,38 +74,111 @@ final class LatencyContextHashMap extends ConcurrentHashMap<String, ArexContext>
         return latencyMap.get(key);
     }
 
-    private void overdueCleanUp() {
-        if (latencyMap != null && CLEANUP_LOCK.tryLock() && latencyMap.mappingCount() > CLEANUP_THRESHOLD) {
-            try {
-                long now = System.currentTimeMillis();
-                for (Map.Entry<String, ArexContext> entry: latencyMap.entrySet()) {
-                    if (isExpired(entry.getValue().getCreateTime(), now)) {
-                        // clear context attachments
-                        entry.getValue().clear();
-                        latencyMap.remove(entry.getKey());
-                    }
-                }
-            } finally {
-                CLEANUP_LOCK.unlock();
+    /**
+     * Evict the contexts whose ttl elapsed before now
+     */
+    void overdueCleanUp(long now) {
+        expiryWheel.advance(now, this::evict);
+    }
+
+    private void evict(ExpiryEntry entry) {
+        ArexContext context = entry.get();
+        if (context == null) {
+            return;
+        }
+        if (entry.latency) {
+            if (latencyMap != null && latencyMap.remove(entry.key, context)) {
+                // clear context attachments
+                context.clear();
+            }
+            return;
+        }
+        // Compatible where map.remove() not called, the context may still be attached to a trace slot
+        if (super.remove(entry.key, context)) {
+            context.expire();
+        }
+    }
+
+    /**
+     * Weak reference, a context removed from the maps is not retained by the wheel until its ttl
+     */
+    private static final class ExpiryEntry extends WeakReference<ArexContext> {
+        private final String key;
+        private final boolean latency;
+        private final long deadlineTick;
+
+        private ExpiryEntry(String key, ArexContext context, boolean latency, long deadlineTick) {
+            super(context);
+            this.key = key;
+            this.latency = latency;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    /**
+     * Hashed timer wheel of one second ticks, the wheel is larger than the ttl so a bucket only holds
+     * the entries of one tick, except the entries scheduled late by a concurrent advance which are evicted
+     * at the next round.
+     */
+    private static final class ExpiryWheel {
+        private static final long TICK_MILLIS = 1000L;
+        private final long ttlMillis;
+        private final Queue<ExpiryEntry>[] buckets;
+        private final int mask;
+        private final ReentrantLock lock = new ReentrantLock();
+        /**
+         * All the ticks up to this one are evicted
+         */
+        private volatile long expiredTick;
+
+        @SuppressWarnings("unchecked")
+        ExpiryWheel(long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+            int size = Integer.highestOneBit((int) (ttlMillis / TICK_MILLIS) + 2) << 1;
+            this.buckets = new Queue[size];
+            for (int i = 0; i < size; i++) {
+                buckets[i] = new ConcurrentLinkedQueue<>();
             }
+            this.mask = size - 1;
+            this.expiredTick = tick(System.currentTimeMillis()) - 1;
+        }
+
+        void schedule(String key, ArexContext context, boolean latency) {
+            // an already expired entry is evicted at the next tick
+            long deadlineTick = Math.max(tick(context.getCreateTime() + ttlMillis), expiredTick + 1);
+            buckets[(int) (deadlineTick & mask)].offer(new ExpiryEntry(key, context, latency, deadlineTick));
         }
 
-        // Compatible where map.remove() not called
-        if (CLEANUP_LOCK.tryLock() && this.mappingCount() > CLEANUP_THRESHOLD) {
+        /**
+         * Evict the entries of the ticks elapsed before now, only one thread advances the wheel at a time
+         */
+        void advance(long now, Consumer<ExpiryEntry> evictor) {
+            long targetTick = tick(now) - 1;
+            if (targetTick <= expiredTick || !lock.tryLock()) {
+                return;
+            }
             try {
-                long now = System.currentTimeMillis();
-                for (Map.Entry<String, ArexContext> entry: super.entrySet()) {
-                    if (isExpired(entry.getValue().getCreateTime(), now)) {
-                        super.remove(entry.getKey());
+                long fromTick = expiredTick + 1;
+                // each bucket is visited at most once even if the wheel was idle for more than a round
+                long lastTick = Math.min(targetTick, fromTick + mask);
+                for (long tick = fromTick; tick <= lastTick; tick++) {
+                    Iterator<ExpiryEntry> iterator = buckets[(int) (tick & mask)].iterator();
+                    while (iterator.hasNext()) {
+                        ExpiryEntry entry = iterator.next();
+                        if (entry.deadlineTick <= targetTick) {
+                            iterator.remove();
+                            evictor.accept(entry);
+                        }
                     }
                 }
+                expiredTick = targetTick;
             } finally {
-                CLEANUP_LOCK.unlock();
+                lock.unlock();
             }
         }
-    }
 
-    private static boolean isExpired(long createTime, long now) {
-        return now - createTime >= RECORD_TTL_MILLIS;
+        private static long tick(long millis) {
+            return Math.floorDiv(millis, TICK_MILLIS);
+        }
     }
 }
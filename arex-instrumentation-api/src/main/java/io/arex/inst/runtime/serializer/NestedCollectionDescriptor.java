@@ -0,0 +1,52 @@
+package io.arex.inst.runtime.serializer;
+
+import io.arex.inst.runtime.util.TypeUtil;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Typed element descriptor of a nested collection, eg: {@code List<List<Object>>}.
+ * <p>
+ * The type name java.util.ArrayList-java.util.ArrayList,java.lang.String,java.lang.Integer only records the element type
+ * of non-empty inner collections, so the type of the next inner collection is resolved as the parser reaches it.
+ */
+public class NestedCollectionDescriptor {
+    private final Collection<Object> collection;
+    private final String[] innerCollectionType;
+    private int elementIndex = 1;
+
+    /**
+     * @param collection outer collection to fill
+     * @param innerCollectionType inner collection type name followed by the element type of each non-empty inner collection,
+     *                            example: [java.util.ArrayList, java.lang.String, java.lang.Integer]
+     */
+    public NestedCollectionDescriptor(Collection<?> collection, String[] innerCollectionType) {
+        this.collection = (Collection<Object>) collection;
+        this.innerCollectionType = innerCollectionType;
+    }
+
+    /**
+     * Type of the next non-null inner collection, eg: {@code ArrayList<String>}
+     */
+    public Type nextType() {
+        if (innerCollectionType.length > elementIndex) {
+            return TypeUtil.forName(innerCollectionType[0] + TypeUtil.HORIZONTAL_LINE + innerCollectionType[elementIndex]);
+        }
+        return TypeUtil.forName(innerCollectionType[0]);
+    }
+
+    /**
+     * Add the deserialized inner collection, only non-empty inner collections consume an element type.
+     */
+    public void add(Object innerCollection) {
+        collection.add(innerCollection);
+        if (innerCollection instanceof Collection<?> && !((Collection<?>) innerCollection).isEmpty()) {
+            elementIndex++;
+        }
+    }
+
+    public Collection<?> getCollection() {
+        return collection;
+    }
+}
@@ -0,0 +1,20 @@
+package io.arex.inst.runtime.serializer;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link SizeLimitedWriter} once the serialized output exceeds the byte budget,
+ * extends IOException so that json generators pass it through without wrapping.
+ */
+public class SerializeSizeExceededException extends IOException {
+    private final long maxBytes;
+
+    public SerializeSizeExceededException(long maxBytes) {
+        super("serialized size exceeds the limit: " + maxBytes + " bytes");
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -28,8 +28,11 @@ public class Serializer {
     public static final String EMPTY_LIST_JSON = "[]";
     private static final String HASH_MAP_VALUES_CLASS = "java.util.HashMap$Values";
     private static final String ARRAY_LIST_CLASS = "java.util.ArrayList";
+    /**
+     * Separator of inner collections in recordings before nested collections were written as one json array,
+     * only used to read old recordings.
+     */
     public static final String SERIALIZE_SEPARATOR = "A@R#E$X";
-    private static final String NULL_STRING = "null";
     private final StringSerializable defaultSerializer;
     private final Map<String, StringSerializable> serializers;
 
@@ -41,31 +44,20 @@ public class Serializer {
             return null;
         }
 
-        Collection<Collection<?>> nestedCollection = TypeUtil.toNestedCollection(object);
-        if (nestedCollection != null) {
-            return serializeNestedCollection(serializer, nestedCollection);
-        }
-
         return INSTANCE.getSerializer(serializer).serialize(object);
     }
 
-    private static String serializeNestedCollection(String serializer, Collection<Collection<?>> nestedCollection) throws Throwable {
-        StringBuilder jsonBuilder = new StringBuilder();
-        Iterator<Collection<?>> collectionIterator = nestedCollection.iterator();
-        while (collectionIterator.hasNext()) {
-            Collection<?> collection = collectionIterator.next();
-            if (collection == null) {
-                jsonBuilder.append(NULL_STRING);
-            } else if (collection.isEmpty()) {
-                jsonBuilder.append(EMPTY_LIST_JSON);
-            } else {
-                jsonBuilder.append(serializeWithException(collection, serializer));
-            }
-            if (collectionIterator.hasNext()) {
-                jsonBuilder.append(SERIALIZE_SEPARATOR);
-            }
+    /**
+     * serialize with a byte budget, abort as soon as the serialized size exceeds maxBytes
+     *
+     * @throws SerializeSizeExceededException if the serialized size exceeds maxBytes
+     */
+    public static String serializeWithException(Object object, String serializer, long maxBytes) throws Throwable {
+        if (object == null || INSTANCE == null) {
+            return null;
         }
-        return jsonBuilder.toString();
+
+        return INSTANCE.getSerializer(serializer).serialize(object, maxBytes);
     }
 
     /**
@@ -171,7 +163,7 @@ public class Serializer {
 
     /**
      * Deserialize nested collection
-     * @param json json string
+     * @param json json string, example: [["a","b"],null,[1,2]]
      * @param collectionType type name eg: java.util.HashSet-java.util.HashSet,java.lang.String,java.lang.String
      * @param serializer serializer
      */
@@ -186,6 +178,24 @@ public class Serializer {
             return collection;
         }
 
+        NestedCollectionDescriptor descriptor = new NestedCollectionDescriptor(collection, innerCollectionType);
+        try {
+            if (INSTANCE.getSerializer(serializer).deserializeNestedCollection(json, descriptor)) {
+                return collection;
+            }
+        } catch (Throwable ex) {
+            // not a json array, recorded by the old version with SERIALIZE_SEPARATOR
+        }
+        collection.clear();
+
+        return deserializeSeparatedCollection(json, collection, innerCollectionType, serializer);
+    }
+
+    /**
+     * Compatible with old recordings, inner collections are serialized separately and joined by SERIALIZE_SEPARATOR
+     */
+    private static <T> Collection<Collection<T>> deserializeSeparatedCollection(String json,
+        Collection<Collection<T>> collection, String[] innerCollectionType, String serializer) {
         // Divide the json string according to the object separator added during serialization
         String[] jsonArray = StringUtil.splitByWholeSeparator(json, SERIALIZE_SEPARATOR);
 
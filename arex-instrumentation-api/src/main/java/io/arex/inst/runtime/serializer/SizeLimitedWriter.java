@@ -0,0 +1,96 @@
+package io.arex.inst.runtime.serializer;
+
+import java.io.Writer;
+
+/**
+ * String writer that counts the UTF-8 encoded size of the written chars,
+ * and aborts the serialization as soon as the size exceeds the budget.
+ */
+public class SizeLimitedWriter extends Writer {
+    private final StringBuilder builder = new StringBuilder();
+    private final long maxBytes;
+    private long bytes;
+
+    public SizeLimitedWriter(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void write(int c) throws SerializeSizeExceededException {
+        count((char) c);
+        checkSize();
+        builder.append((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws SerializeSizeExceededException {
+        for (int i = off; i < off + len; i++) {
+            count(cbuf[i]);
+        }
+        checkSize();
+        builder.append(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws SerializeSizeExceededException {
+        for (int i = off; i < off + len; i++) {
+            count(str.charAt(i));
+        }
+        checkSize();
+        builder.append(str, off, off + len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws SerializeSizeExceededException {
+        String str = String.valueOf(csq);
+        write(str, 0, str.length());
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        // nothing to flush
+    }
+
+    @Override
+    public void close() {
+        // nothing to close
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return builder.toString();
+    }
+
+    private void count(char c) {
+        if (c < 0x80) {
+            bytes++;
+        } else if (c < 0x800 || Character.isSurrogate(c)) {
+            // a surrogate pair is encoded to 4 bytes
+            bytes += 2;
+        } else {
+            bytes += 3;
+        }
+    }
+
+    private void checkSize() throws SerializeSizeExceededException {
+        if (bytes > maxBytes) {
+            throw new SerializeSizeExceededException(maxBytes);
+        }
+    }
+
+    /**
+     * UTF-8 encoded size of the string
+     */
+    static long sizeOf(String value) {
+        SizeLimitedWriter writer = new SizeLimitedWriter(Long.MAX_VALUE);
+        for (int i = 0; i < value.length(); i++) {
+            writer.count(value.charAt(i));
+        }
+        return writer.bytes;
+    }
+}
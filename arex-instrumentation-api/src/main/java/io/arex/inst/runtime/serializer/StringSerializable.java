@@ -1,5 +1,8 @@
 package io.arex.inst.runtime.serializer;
 
+import io.arex.agent.bootstrap.util.StringUtil;
+import io.arex.inst.runtime.util.JsonArrayUtil;
+
 import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.Collections;
@@ -40,6 +43,24 @@ public interface StringSerializable {
      */
     String serialize(Object object) throws Throwable;
 
+    /**
+     * Serialize with a byte budget, the budget is checked by a counting sink while writing.
+     * Serializers backed by a streaming generator should override this to abort as soon as the budget is exceeded,
+     * the default implementation checks the size after the whole object is serialized.
+     *
+     * @param object object to be serialized
+     * @param maxBytes max UTF-8 encoded size of the result
+     * @return result string
+     * @throws SerializeSizeExceededException if the result exceeds maxBytes
+     */
+    default String serialize(Object object, long maxBytes) throws Throwable {
+        String json = serialize(object);
+        if (json != null && SizeLimitedWriter.sizeOf(json) > maxBytes) {
+            throw new SerializeSizeExceededException(maxBytes);
+        }
+        return json;
+    }
+
     /**
      * Deserialize by Class
      *
@@ -58,12 +79,47 @@ public interface StringSerializable {
      */
     <T> T deserialize(String value, Type type) throws Throwable;
 
+    /**
+     * Deserialize a json array of inner collections in one pass, eg: {@code [["a","b"],null,[1,2]]}.
+     * The type of each inner collection is resolved by the descriptor as the elements are read.
+     * Serializers backed by a streaming parser should override this to avoid splitting the json.
+     *
+     * @param value json array string
+     * @param descriptor typed element descriptor, collects the deserialized inner collections
+     * @return false if the value is not an array of arrays
+     */
+    default boolean deserializeNestedCollection(String value, NestedCollectionDescriptor descriptor) throws Throwable {
+        List<String> elements = JsonArrayUtil.splitElements(value);
+        if (elements == null) {
+            return false;
+        }
+        for (String element : elements) {
+            if (StringUtil.isNullWord(element)) {
+                descriptor.add(null);
+                continue;
+            }
+            if (StringUtil.isEmpty(element) || element.charAt(0) != '[') {
+                return false;
+            }
+            descriptor.add(deserialize(element, descriptor.nextType()));
+        }
+        return true;
+    }
+
     /**
      * regenerate the serializer object and reload the serialization configuration
      * @return StringSerializable example: jacksonSerializer/GsonSerializer
      */
     StringSerializable reCreateSerializer();
 
+    /**
+     * Reload the serialization configuration in place, the warmed caches of the serializer are kept.
+     * @return false if the serializer does not support reloading, then it is regenerated by {@link #reCreateSerializer()}
+     */
+    default boolean reloadConfig() {
+        return false;
+    }
+
     default boolean isDefault() {
         return false;
     }
@@ -9,6 +9,7 @@ import io.arex.inst.runtime.context.ContextManager;
 import io.arex.agent.bootstrap.util.StringUtil;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class IgnoreUtils {
@@ -17,6 +18,12 @@ public class IgnoreUtils {
      *  operation cache: can not serialize args or response
      */
     private static final Set<Integer> INVALID_OPERATION_HASH_CACHE = new ConcurrentHashSet<>();
+    /**
+     *  operation cache: serialized result exceeds the size limit, bounded by OVERSIZED_OPERATION_LIMIT operations,
+     *  value is the smallest result size (element count of collection/map/array) that exceeded
+     */
+    private static final Map<String, Integer> OVERSIZED_OPERATION_CACHE = new ConcurrentHashMap<>();
+    private static final int OVERSIZED_OPERATION_LIMIT = 1000;
 
     public static boolean ignoreMockResult(String serviceKey, String operationKey) {
         if (StringUtil.isEmpty(serviceKey)) {
@@ -122,4 +129,31 @@ public class IgnoreUtils {
         INVALID_OPERATION_HASH_CACHE.add(operationSignature.hashCode());
     }
 
+    /**
+     * Whether the result is estimated to exceed the serialize size limit without serializing it again:
+     * an earlier result of the operation with the same or a smaller size already exceeded it.
+     * Only the results with a size (collection/map/array) are estimated.
+     */
+    public static boolean oversizedOperation(String operationSignature, int resultSize) {
+        if (resultSize <= 0) {
+            return false;
+        }
+        Integer oversize = OVERSIZED_OPERATION_CACHE.get(operationSignature);
+        return oversize != null && resultSize >= oversize;
+    }
+
+    /**
+     * @param resultSize element count of the collection/map/array result, others (<= 0) are not remembered
+     */
+    public static void addOversizedOperation(String operationSignature, int resultSize) {
+        if (resultSize <= 0) {
+            return;
+        }
+        if (OVERSIZED_OPERATION_CACHE.size() >= OVERSIZED_OPERATION_LIMIT
+            && !OVERSIZED_OPERATION_CACHE.containsKey(operationSignature)) {
+            return;
+        }
+        OVERSIZED_OPERATION_CACHE.merge(operationSignature, resultSize, Math::min);
+    }
+
 }
@@ -0,0 +1,93 @@
+package io.arex.inst.runtime.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonArrayUtil {
+    private static final char ARRAY_START = '[';
+    private static final char ARRAY_END = ']';
+    private static final char OBJECT_START = '{';
+    private static final char OBJECT_END = '}';
+    private static final char ELEMENT_SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final char ESCAPE = '\\';
+
+    private JsonArrayUtil() {}
+
+    /**
+     * Split the top-level elements of a json array in a single scan, nested arrays, objects and strings are kept intact.
+     * <p>
+     * eg: {@code [["a","b"],null,[1,2]]} to {@code ["a","b"]}, {@code null}, {@code [1,2]}
+     *
+     * @param json json array string
+     * @return element json strings, null if the value is not a well-formed json array
+     */
+    public static List<String> splitElements(String json) {
+        if (json == null) {
+            return null;
+        }
+        int start = skipWhitespace(json, 0);
+        int end = json.length() - 1;
+        while (end > start && Character.isWhitespace(json.charAt(end))) {
+            end--;
+        }
+        if (start >= end || json.charAt(start) != ARRAY_START || json.charAt(end) != ARRAY_END) {
+            return null;
+        }
+
+        List<String> elements = new ArrayList<>();
+        int depth = 0;
+        boolean inString = false;
+        int elementStart = start + 1;
+        for (int i = start + 1; i < end; i++) {
+            char c = json.charAt(i);
+            if (inString) {
+                if (c == ESCAPE) {
+                    i++;
+                } else if (c == QUOTE) {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case QUOTE:
+                    inString = true;
+                    break;
+                case ARRAY_START:
+                case OBJECT_START:
+                    depth++;
+                    break;
+                case ARRAY_END:
+                case OBJECT_END:
+                    if (--depth < 0) {
+                        return null;
+                    }
+                    break;
+                case ELEMENT_SEPARATOR:
+                    if (depth == 0) {
+                        elements.add(json.substring(elementStart, i).trim());
+                        elementStart = i + 1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (inString || depth != 0) {
+            return null;
+        }
+
+        String lastElement = json.substring(elementStart, end).trim();
+        if (!lastElement.isEmpty() || !elements.isEmpty()) {
+            elements.add(lastElement);
+        }
+        return elements;
+    }
+
+    private static int skipWhitespace(String json, int index) {
+        while (index < json.length() && Character.isWhitespace(json.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
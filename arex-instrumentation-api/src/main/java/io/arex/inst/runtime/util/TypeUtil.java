@@ -2,7 +2,6 @@ package io.arex.inst.runtime.util;
 
 import io.arex.agent.bootstrap.model.ParameterizedTypeImpl;
 import io.arex.agent.bootstrap.util.ArrayUtils;
-import io.arex.agent.bootstrap.util.CollectionUtil;
 import io.arex.agent.bootstrap.util.StringUtil;
 import io.arex.inst.runtime.log.LogManager;
 
@@ -389,26 +388,4 @@ public class TypeUtil {
         }
     }
 
-    public static Collection<Collection<?>> toNestedCollection(Object object) {
-        Collection<Collection<?>> collection = null;
-        if (object instanceof Collection<?>) {
-            collection = (Collection<Collection<?>>) object;
-        }
-
-        if (CollectionUtil.isEmpty(collection)) {
-            return null;
-        }
-
-        for (Object innerCollection : collection) {
-            if (innerCollection == null) {
-                continue;
-            }
-            if (!(innerCollection instanceof Collection<?>)) {
-                return null;
-            }
-        }
-
-        return collection;
-    }
-
 }
@@ -66,6 +66,21 @@ class SerializeSkipInfoListenerTest {
         Assertions.assertEquals(Serializer.getINSTANCE().getSerializer().hashCode(), defaultSerializer.hashCode());
     }
 
+    @Test
+    void reloadSerializerInPlace() {
+        TestSerialize reloadable = new TestSerialize() {
+            @Override
+            public boolean reloadConfig() {
+                return true;
+            }
+        };
+        Serializer.builder(new TestJacksonSerializable()).addSerializer("test", reloadable).build();
+
+        listener.rebuildSerializer();
+
+        Assertions.assertSame(reloadable, Serializer.getINSTANCE().getSerializers().get("test"));
+    }
+
     static class TestSerialize implements StringSerializable {
         boolean recreate = false;
 
@@ -1,8 +1,10 @@
 package io.arex.inst.runtime.context;
 
 import io.arex.agent.bootstrap.TraceContextManager;
+import io.arex.agent.bootstrap.ctx.TraceSlot;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -11,6 +13,7 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -52,4 +55,49 @@ class ContextManagerTest {
                 arguments(false, null, emptyMocker, predicate2)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void currentContextFromSlot() {
+        TraceSlot slot = new TraceSlot("mock-slot");
+        Mockito.when(TraceContextManager.getSlot()).thenReturn(slot);
+        Mockito.when(TraceContextManager.get(any(Boolean.class))).thenReturn("mock-slot");
+        try {
+            ArexContext context = ContextManager.currentContext(true, null);
+            assertSame(context, slot.getContext());
+            assertSame(context, ContextManager.currentContext());
+            assertTrue(ContextManager.needRecord());
+            assertFalse(ContextManager.needReplay());
+            assertTrue(ContextManager.needRecordOrReplay());
+
+            // expired context is not returned from the slot
+            context.clear();
+            assertNull(ContextManager.currentContext());
+            assertFalse(ContextManager.needRecordOrReplay());
+        } finally {
+            Mockito.when(TraceContextManager.getSlot()).thenReturn(null);
+            Mockito.when(TraceContextManager.get(any(Boolean.class))).thenReturn(null);
+        }
+    }
+
+    @Test
+    void currentContextEvictedByTtl() {
+        TraceSlot slot = new TraceSlot("mock-ttl");
+        Mockito.when(TraceContextManager.getSlot()).thenReturn(slot);
+        Mockito.when(TraceContextManager.get(any(Boolean.class))).thenReturn("mock-ttl");
+        try {
+            ArexContext context = ContextManager.currentContext(true, null);
+            assertSame(context, slot.getContext());
+            assertTrue(ContextManager.needRecord());
+
+            // ttl elapsed and ContextManager.remove() never called, the slot still holds the context
+            ContextManager.RECORD_MAP.overdueCleanUp(context.getCreateTime() + TimeUnit.MINUTES.toMillis(1) + 2000);
+            assertNull(ContextManager.getRecordContext("mock-ttl"));
+            assertSame(context, slot.getContext());
+            assertFalse(ContextManager.needRecord());
+            assertFalse(ContextManager.needReplay());
+        } finally {
+            Mockito.when(TraceContextManager.getSlot()).thenReturn(null);
+            Mockito.when(TraceContextManager.get(any(Boolean.class))).thenReturn(null);
+        }
+    }
+}
@@ -2,8 +2,11 @@ package io.arex.inst.runtime.context;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 
 class LatencyContextHashMapTest {
@@ -38,4 +41,28 @@ class LatencyContextHashMapTest {
         context = RECORD_MAP.get(key2);
         assertEquals(key2, context.getCaseId());
     }
+
+    @Test
+    void overdueCleanUp() {
+        LatencyContextHashMap map = new LatencyContextHashMap();
+        // init latencyMap
+        assertNull(map.get("init"));
+        ArexContext recording = map.computeIfAbsent("recording", ArexContext::of);
+        ArexContext latency = map.computeIfAbsent("latency", ArexContext::of);
+        map.remove("latency");
+
+        long now = System.currentTimeMillis();
+        map.overdueCleanUp(now);
+        assertSame(recording, map.get("recording"));
+        assertSame(latency, map.get("latency"));
+
+        // expired after ttl
+        map.overdueCleanUp(now + TimeUnit.MINUTES.toMillis(1) + 2000);
+        assertEquals(0, map.size());
+        assertNull(map.get("recording"));
+        assertNull(map.get("latency"));
+        assertTrue(latency.isExpired());
+        // evicted without map.remove(), flagged as expired
+        assertTrue(recording.isExpired());
+    }
 }
@@ -2,6 +2,7 @@ package io.arex.inst.runtime.serializer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import io.arex.agent.bootstrap.util.CollectionUtil;
 import io.arex.inst.runtime.listener.EventProcessorTest.TestJacksonSerializable;
 import io.arex.inst.runtime.listener.EventProcessorTest.TestGsonSerializer;
 import io.arex.inst.runtime.util.TypeUtil;
@@ -85,6 +86,41 @@ class SerializerTest {
         assertEquals(0, emptyList.size());
     }
 
+    @Test
+    void testNestedListContainsSeparator() {
+        List<List<Object>> list = new ArrayList<>();
+        list.add(new ArrayList<>());
+        list.add(CollectionUtil.newArrayList("value" + Serializer.SERIALIZE_SEPARATOR, "[\"a\",null]"));
+        list.add(null);
+        list.add(CollectionUtil.newArrayList(1, 2));
+
+        String typeName = TypeUtil.getName(list);
+        for (String serializer : new String[]{null, "jackson"}) {
+            String json = Serializer.serialize(list, serializer);
+            assertEquals("[[],[\"valueA@R#E$X\",\"[\\\"a\\\",null]\"],null,[1,2]]", json);
+            assertEquals(list, Serializer.deserialize(json, typeName, serializer));
+        }
+    }
+
+    @Test
+    void testNestedListRecordedWithSeparator() {
+        String typeName = "java.util.ArrayList-java.util.ArrayList,java.lang.String,java.lang.Integer";
+        List<List<Object>> expected = new ArrayList<>();
+        expected.add(CollectionUtil.newArrayList("a", "b"));
+        expected.add(null);
+        expected.add(new ArrayList<>());
+        expected.add(CollectionUtil.newArrayList(1, 2));
+
+        String json = "[\"a\",\"b\"]" + Serializer.SERIALIZE_SEPARATOR + "null" + Serializer.SERIALIZE_SEPARATOR
+            + "[]" + Serializer.SERIALIZE_SEPARATOR + "[1,2]";
+        assertEquals(expected, Serializer.deserialize(json, typeName));
+
+        // single inner collection without separator
+        List<List<Object>> actualResult = Serializer.deserialize("[\"a\",\"b\"]", typeName);
+        assertEquals(1, actualResult.size());
+        assertEquals(CollectionUtil.newArrayList("a", "b"), actualResult.get(0));
+    }
+
     @Test
     void testNestedSet() {
         Set<Set<Object>> set = new HashSet<>();
@@ -110,6 +146,16 @@ class SerializerTest {
         assertEquals(set, actualResult);
     }
 
+    @Test
+    void serializeWithSizeLimit() throws Throwable {
+        List<String> list = CollectionUtil.newArrayList("a", "中");
+        // ["a","中"] is 11 bytes in UTF-8
+        assertEquals("[\"a\",\"中\"]", Serializer.serializeWithException(list, null, 11));
+        assertThrows(SerializeSizeExceededException.class, () -> Serializer.serializeWithException(list, null, 10));
+        assertThrows(SerializeSizeExceededException.class, () -> Serializer.serializeWithException(list, "jackson", 10));
+        assertNull(Serializer.serializeWithException(null, null, 10));
+    }
+
     @Test
     void nullObjectOrType() {
         // null
@@ -110,4 +110,26 @@ class IgnoreUtilsTest {
         IgnoreUtils.addInvalidOperation("testClass.testMethod");
         assertTrue(IgnoreUtils.invalidOperation("testClass.testMethod"));
     }
+
+    @Test
+    void oversizedOperation() {
+        assertFalse(IgnoreUtils.oversizedOperation("testClass.oversizedMethod", 100));
+        IgnoreUtils.addOversizedOperation("testClass.oversizedMethod", 100);
+        IgnoreUtils.addOversizedOperation("testClass.oversizedMethod", 200);
+        assertTrue(IgnoreUtils.oversizedOperation("testClass.oversizedMethod", 100));
+        assertFalse(IgnoreUtils.oversizedOperation("testClass.oversizedMethod", 99));
+
+        // a result without size (bean, string) is never estimated oversized
+        IgnoreUtils.addOversizedOperation("testClass.oversizedBean", 0);
+        assertFalse(IgnoreUtils.oversizedOperation("testClass.oversizedBean", 0));
+        assertFalse(IgnoreUtils.oversizedOperation("testClass.oversizedBean", 1));
+        assertFalse(IgnoreUtils.oversizedOperation("testClass.oversizedMethod", 0));
+
+        // bounded, the operations beyond the limit are not remembered
+        for (int i = 0; i < 1100; i++) {
+            IgnoreUtils.addOversizedOperation("testClass.bounded" + i, 1);
+        }
+        assertTrue(IgnoreUtils.oversizedOperation("testClass.bounded0", 1));
+        assertFalse(IgnoreUtils.oversizedOperation("testClass.bounded1099", 1));
+    }
 }
@@ -0,0 +1,28 @@
+package io.arex.inst.runtime.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class JsonArrayUtilTest {
+
+    @Test
+    void splitElements() {
+        assertNull(JsonArrayUtil.splitElements(null));
+        assertNull(JsonArrayUtil.splitElements(""));
+        assertNull(JsonArrayUtil.splitElements("{\"key\":[1,2]}"));
+        assertNull(JsonArrayUtil.splitElements("[[1,2]"));
+        assertNull(JsonArrayUtil.splitElements("[\"a]"));
+
+        assertEquals(0, JsonArrayUtil.splitElements("[]").size());
+        assertEquals(0, JsonArrayUtil.splitElements(" [ ] ").size());
+
+        List<String> actualResult = JsonArrayUtil.splitElements("[[\"a,]\",\"b\\\"[\"], null ,[],[{\"k\":[1,2]}]]");
+        assertEquals(4, actualResult.size());
+        assertEquals("[\"a,]\",\"b\\\"[\"]", actualResult.get(0));
+        assertEquals("null", actualResult.get(1));
+        assertEquals("[]", actualResult.get(2));
+        assertEquals("[{\"k\":[1,2]}]", actualResult.get(3));
+    }
+}
@@ -305,28 +305,6 @@ class TypeUtilTest {
         System.out.println(TypeUtil.getName(Collections.emptyList()));
     }
 
-    @Test
-    void testToNestedCollection() {
-        Collection<?> actualResult = TypeUtil.toNestedCollection(null);
-        assertNull(actualResult);
-
-        actualResult = TypeUtil.toNestedCollection(new HashMap<>());
-        assertNull(actualResult);
-
-        Collection<Object> collection = new ArrayList<>();
-        actualResult = TypeUtil.toNestedCollection(collection);
-        assertNull(actualResult);
-
-        collection.add(null);
-        actualResult = TypeUtil.toNestedCollection(collection);
-        assertEquals(collection, actualResult);
-
-        collection.add(new ArrayList<>());
-        actualResult = TypeUtil.toNestedCollection(collection);
-        assertEquals(collection, actualResult);
-    }
-
-
     @Test
     void testMapToString() {
         // single generic map
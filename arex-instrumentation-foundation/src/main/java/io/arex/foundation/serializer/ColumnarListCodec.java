@@ -0,0 +1,404 @@
+package io.arex.foundation.serializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.BeanDeserializer;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.ValueInstantiator;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.arex.agent.bootstrap.constants.ConfigConstants;
+import io.arex.inst.runtime.config.Config;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar json of a list whose elements are beans of the same class, the field names are written once
+ * and the values are stored per column, example:
+ * <pre>
+ * [{"id":1,"name":"a"},{"id":2,"name":"b"}] to {"@columnar":["id","name"],"@values":[[1,2],["a","b"]]}
+ * </pre>
+ * Opt-in by arex.serialize.columnar.threshold (disabled by default), the consumers of the recorded json
+ * must understand the columnar form.
+ * The columns are streamed to the writer by the property writers of the bean serializer, so the size budget of
+ * the writer applies while writing. Only a bean whose properties are always written (no null suppression,
+ * filter or any getter) is columnar, any other list is written as a normal json array.
+ */
+final class ColumnarListCodec {
+    static final String COLUMNAR_PREFIX = "{\"@columnar\"";
+    private static final String COLUMNS_FIELD = "@columnar";
+    private static final String VALUES_FIELD = "@values";
+    private static final int DEFAULT_THRESHOLD = 0;
+
+    /**
+     * threshold of the current config, a config update replaces the config instance so it is parsed again
+     */
+    private static volatile Threshold threshold = new Threshold(null, DEFAULT_THRESHOLD);
+
+    private ColumnarListCodec() {
+    }
+
+    /**
+     * @return min list size to use columnar json, 0 means disabled
+     */
+    static int threshold() {
+        Config config = Config.get();
+        Threshold current = threshold;
+        if (current.config != config) {
+            int value = config == null ? DEFAULT_THRESHOLD
+                    : config.getInt(ConfigConstants.SERIALIZE_COLUMNAR_THRESHOLD, DEFAULT_THRESHOLD);
+            current = new Threshold(config, value);
+            threshold = current;
+        }
+        return current.value;
+    }
+
+    /**
+     * Quick check before resolving the columns: a list over the threshold whose elements are non-null beans of one class
+     */
+    static boolean applicable(ObjectMapper mapper, Object object) throws JsonMappingException {
+        if (!(object instanceof List<?>)) {
+            return false;
+        }
+        List<?> list = (List<?>) object;
+        int threshold = threshold();
+        if (threshold <= 0 || list.size() < threshold) {
+            return false;
+        }
+        Object first = list.get(0);
+        if (first == null) {
+            return false;
+        }
+        Class<?> elementClass = first.getClass();
+        for (Object element : list) {
+            if (element == null || element.getClass() != elementClass) {
+                return false;
+            }
+        }
+        return mapper.getSerializerProviderInstance().findValueSerializer(elementClass) instanceof BeanSerializerBase;
+    }
+
+    /**
+     * @return false if the bean can not be written by columns, nothing is written to the writer
+     */
+    static boolean write(ObjectMapper mapper, List<?> list, Writer writer) throws IOException {
+        SerializerProvider provider = mapper.getSerializerProviderInstance();
+        Object first = list.get(0);
+        JsonSerializer<Object> serializer = provider.findValueSerializer(first.getClass());
+        if (!(serializer instanceof BeanSerializerBase)) {
+            return false;
+        }
+        List<PropertyWriter> columns = resolveColumns(mapper, (BeanSerializerBase) serializer, first);
+        if (columns == null) {
+            return false;
+        }
+
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(writer)) {
+            mapper.getSerializationConfig().initialize(generator);
+            generator.writeStartObject();
+            generator.writeFieldName(COLUMNS_FIELD);
+            generator.writeStartArray();
+            for (PropertyWriter column : columns) {
+                generator.writeString(column.getName());
+            }
+            generator.writeEndArray();
+
+            generator.writeFieldName(VALUES_FIELD);
+            generator.writeStartArray();
+            for (PropertyWriter column : columns) {
+                generator.writeStartArray();
+                for (Object element : list) {
+                    writeValue(column, element, generator, provider);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return true;
+    }
+
+    private static void writeValue(PropertyWriter column, Object element, JsonGenerator generator,
+                                   SerializerProvider provider) throws IOException {
+        try {
+            column.serializeAsElement(element, generator, provider);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonMappingException(generator, "columnar json failed to write " + column.getName(), e);
+        }
+    }
+
+    /**
+     * The columns are the fields of the first row in the row-wise order (after skip rules), each one must be
+     * a property that is written for every bean
+     *
+     * @return null if the bean can not be written by columns
+     */
+    private static List<PropertyWriter> resolveColumns(ObjectMapper mapper, BeanSerializerBase serializer,
+                                                       Object first) throws IOException {
+        if (serializer.usesObjectId()) {
+            return null;
+        }
+        SerializationConfig config = mapper.getSerializationConfig();
+        BeanDescription description = config.introspect(mapper.constructType(first.getClass()));
+        if (description.findAnyGetter() != null
+                || config.getAnnotationIntrospector().findFilterId(description.getClassInfo()) != null) {
+            return null;
+        }
+        Map<String, PropertyWriter> writers = new HashMap<>();
+        Iterator<PropertyWriter> properties = serializer.properties();
+        while (properties.hasNext()) {
+            PropertyWriter property = properties.next();
+            if (!(property instanceof BeanPropertyWriter) || ((BeanPropertyWriter) property).willSuppressNulls()) {
+                return null;
+            }
+            writers.put(property.getName(), property);
+        }
+
+        TokenBuffer row = new TokenBuffer(mapper, false);
+        mapper.writeValue(row, first);
+        List<String> names = readColumns(row);
+        if (names == null || names.isEmpty()) {
+            return null;
+        }
+        List<PropertyWriter> columns = new ArrayList<>(names.size());
+        for (String name : names) {
+            PropertyWriter column = writers.get(name);
+            // type id, unwrapped or virtual fields
+            if (column == null) {
+                return null;
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    static boolean isColumnar(String json) {
+        return json.startsWith(COLUMNAR_PREFIX);
+    }
+
+    /**
+     * Deserialize the columnar json to the collection type. A list of beans created by the default constructor
+     * is filled directly from the column parsers, property by property. Any other type (creator, polymorphic or
+     * custom deserializer, unknown column) falls back to rebuilding the row-wise json text, the numbers are copied
+     * as text so the values are the same as deserializing the row-wise json.
+     */
+    static <T> T read(ObjectMapper mapper, String json, JavaType javaType) throws IOException {
+        JsonFactory factory = mapper.getFactory();
+        char[] chars = json.toCharArray();
+        List<String> columns = new ArrayList<>();
+        List<JsonParser> values = new ArrayList<>();
+        try {
+            try (JsonParser parser = factory.createParser(chars)) {
+                expect(parser, JsonToken.START_OBJECT);
+                expectField(parser, COLUMNS_FIELD);
+                expect(parser, JsonToken.START_ARRAY);
+                while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                    columns.add(parser.getText());
+                }
+                expectField(parser, VALUES_FIELD);
+                expect(parser, JsonToken.START_ARRAY);
+                while (parser.nextToken() == JsonToken.START_ARRAY) {
+                    // each column is read by its own parser from the start of its array
+                    int offset = (int) parser.getTokenLocation().getCharOffset();
+                    JsonParser column = factory.createParser(chars, offset, chars.length - offset);
+                    mapper.getDeserializationConfig().initialize(column);
+                    values.add(column);
+                    expect(column, JsonToken.START_ARRAY);
+                    parser.skipChildren();
+                }
+            }
+            if (columns.size() != values.size()) {
+                throw new JsonMappingException(null, "columnar json has " + columns.size() + " columns and "
+                        + values.size() + " values");
+            }
+            if (values.isEmpty()) {
+                return mapper.readValue("[]", javaType);
+            }
+
+            DeserializationContext context = ((DefaultDeserializationContext) mapper.getDeserializationContext())
+                    .createInstance(mapper.getDeserializationConfig(), values.get(0), mapper.getInjectableValues());
+            BeanDeserializer deserializer = beanDeserializer(context, javaType);
+            List<SettableBeanProperty> properties =
+                    deserializer == null ? null : resolveProperties(deserializer, columns);
+            if (properties != null) {
+                return readBeans(context, deserializer.getValueInstantiator(), properties, values);
+            }
+            return readRows(mapper, javaType, columns, values);
+        } finally {
+            for (JsonParser column : values) {
+                column.close();
+            }
+        }
+    }
+
+    /**
+     * @return the deserializer of the elements if the collection is an ArrayList of beans created by the default
+     * constructor, null otherwise
+     */
+    private static BeanDeserializer beanDeserializer(DeserializationContext context, JavaType javaType)
+            throws IOException {
+        if (!javaType.isCollectionLikeType() || !javaType.getRawClass().isAssignableFrom(ArrayList.class)) {
+            return null;
+        }
+        JsonDeserializer<Object> deserializer = context.findRootValueDeserializer(javaType.getContentType());
+        if (deserializer == null || deserializer.getClass() != BeanDeserializer.class) {
+            return null;
+        }
+        BeanDeserializer beanDeserializer = (BeanDeserializer) deserializer;
+        if (!beanDeserializer.getValueInstantiator().canCreateUsingDefault()
+                || beanDeserializer.getObjectIdReader() != null) {
+            return null;
+        }
+        return beanDeserializer;
+    }
+
+    /**
+     * @return the properties of the columns, null if a column is not a property of the bean
+     */
+    private static List<SettableBeanProperty> resolveProperties(BeanDeserializer deserializer, List<String> columns) {
+        List<SettableBeanProperty> properties = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            SettableBeanProperty property = deserializer.findProperty(column);
+            if (property == null) {
+                return null;
+            }
+            properties.add(property);
+        }
+        return properties;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T readBeans(DeserializationContext context, ValueInstantiator instantiator,
+                                   List<SettableBeanProperty> properties, List<JsonParser> values) throws IOException {
+        List<Object> list = new ArrayList<>();
+        JsonParser first = values.get(0);
+        while (first.nextToken() != JsonToken.END_ARRAY) {
+            Object bean = instantiator.createUsingDefault(context);
+            for (int i = 0; i < values.size(); i++) {
+                JsonParser column = values.get(i);
+                if (i > 0 && column.nextToken() == JsonToken.END_ARRAY) {
+                    throw new JsonMappingException(column, "columnar json has columns of different sizes");
+                }
+                properties.get(i).deserializeAndSet(column, context, bean);
+            }
+            list.add(bean);
+        }
+        for (int i = 1; i < values.size(); i++) {
+            if (values.get(i).nextToken() != JsonToken.END_ARRAY) {
+                throw new JsonMappingException(values.get(i), "columnar json has columns of different sizes");
+            }
+        }
+        return (T) list;
+    }
+
+    private static <T> T readRows(ObjectMapper mapper, JavaType javaType, List<String> columns,
+                                  List<JsonParser> values) throws IOException {
+        PooledStringWriter rows = PooledStringWriter.acquire();
+        try {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(rows)) {
+                generator.writeStartArray();
+                while (values.get(0).nextToken() != JsonToken.END_ARRAY) {
+                    generator.writeStartObject();
+                    for (int i = 0; i < values.size(); i++) {
+                        JsonParser column = values.get(i);
+                        if (i > 0) {
+                            column.nextToken();
+                        }
+                        generator.writeFieldName(columns.get(i));
+                        copyValue(column, generator);
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            }
+            return mapper.readValue(rows.toString(), javaType);
+        } finally {
+            rows.release();
+        }
+    }
+
+    /**
+     * Copy the current value, numbers as their text (eg: the scale of 1.10 is kept)
+     */
+    private static void copyValue(JsonParser parser, JsonGenerator generator) throws IOException {
+        int depth = 0;
+        do {
+            JsonToken token = parser.currentToken();
+            if (token == null) {
+                throw new JsonMappingException(parser, "columnar json ends unexpectedly");
+            }
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                generator.writeNumber(parser.getText());
+            } else {
+                generator.copyCurrentEvent(parser);
+            }
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        } while (depth > 0 && parser.nextToken() != null);
+    }
+
+    /**
+     * @return field names of the row, null if the row is not an object
+     */
+    private static List<String> readColumns(TokenBuffer row) throws IOException {
+        try (JsonParser parser = row.asParser()) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            List<String> columns = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                columns.add(parser.getCurrentName());
+                parser.nextToken();
+                parser.skipChildren();
+            }
+            return columns;
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken token) throws IOException {
+        if (parser.nextToken() != token) {
+            throw new JsonMappingException(parser, "columnar json expects " + token + " but " + parser.currentToken());
+        }
+    }
+
+    private static void expectField(JsonParser parser, String field) throws IOException {
+        if (parser.nextToken() != JsonToken.FIELD_NAME || !field.equals(parser.getCurrentName())) {
+            throw new JsonMappingException(parser, "columnar json expects field " + field);
+        }
+    }
+
+    private static final class Threshold {
+        private final Config config;
+        private final int value;
+
+        private Threshold(Config config, int value) {
+            this.config = config;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package io.arex.foundation.serializer;
+
+import io.arex.agent.thirdparty.util.time.DateFormatUtils;
+import io.arex.foundation.serializer.JacksonSerializer.DatePatternConstants;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Formats the date patterns of {@link DatePatternConstants} straight from the epoch millis and the zone offset,
+ * the output is the same as FastDateFormat without building a Calendar per value.
+ * Dates before the Gregorian cutover, after year 9999, or in a non-Gregorian default locale fall back to FastDateFormat.
+ */
+final class EpochMillisFormatter {
+    static final long INVALID_MILLIS = Long.MIN_VALUE;
+    /**
+     * 1583-01-02T00:00:00Z
+     */
+    private static final long MIN_FAST_MILLIS = -12212467200000L;
+    /**
+     * 9999-12-30T00:00:00Z
+     */
+    private static final long MAX_FAST_MILLIS = 253402128000000L;
+    private static final long MILLIS_PER_DAY = 86400000L;
+    private static final int MILLIS_PER_MINUTE = 60000;
+    private static final int MILLIS_LENGTH = DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS.length();
+    /**
+     * yyyy-MM-dd'T'HH:mm:ss.SSS+08:00
+     */
+    private static final int WITH_TIMEZONE_LENGTH = MILLIS_LENGTH + 6;
+
+    private static volatile Locale checkedLocale;
+    private static volatile boolean gregorianLocale;
+
+    private EpochMillisFormatter() {
+    }
+
+    /**
+     * Format as yyyy-MM-dd HH:mm:ss.SSS in the default time zone
+     */
+    static String format(Date date) {
+        long millis = date.getTime();
+        if (!inFastRange(millis) || !isGregorianLocale()) {
+            return DateFormatUtils.format(date, DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS);
+        }
+        char[] chars = new char[MILLIS_LENGTH];
+        writeLocal(chars, millis + TimeZone.getDefault().getOffset(millis), ' ');
+        return new String(chars);
+    }
+
+    /**
+     * Format as yyyy-MM-dd'T'HH:mm:ss.SSSZZZ in the time zone of calendar
+     */
+    static String formatWithZone(Calendar calendar) {
+        long millis = calendar.getTimeInMillis();
+        TimeZone timeZone = calendar.getTimeZone();
+        if (!inFastRange(millis) || calendar.getClass() != GregorianCalendar.class) {
+            return DateFormatUtils.format(calendar, DatePatternConstants.SIMPLE_DATE_FORMAT_WITH_TIMEZONE, timeZone);
+        }
+        int offset = timeZone.getOffset(millis);
+        char[] chars = new char[WITH_TIMEZONE_LENGTH];
+        writeLocal(chars, millis + offset, 'T');
+        if (offset < 0) {
+            chars[MILLIS_LENGTH] = '-';
+            offset = -offset;
+        } else {
+            chars[MILLIS_LENGTH] = '+';
+        }
+        int hours = offset / (60 * MILLIS_PER_MINUTE);
+        writeDigits(chars, MILLIS_LENGTH + 1, hours, 2);
+        chars[MILLIS_LENGTH + 3] = ':';
+        writeDigits(chars, MILLIS_LENGTH + 4, offset / MILLIS_PER_MINUTE - 60 * hours, 2);
+        return new String(chars);
+    }
+
+    /**
+     * Parse yyyy-MM-dd'T'HH:mm:ss.SSS+08:00 by the offset in the text
+     *
+     * @return epoch millis, {@link #INVALID_MILLIS} if the text is not in this format
+     */
+    static long parseWithOffset(String source) {
+        if (source.length() != WITH_TIMEZONE_LENGTH || source.charAt(4) != '-' || source.charAt(7) != '-'
+                || source.charAt(10) != 'T' || source.charAt(13) != ':' || source.charAt(16) != ':'
+                || source.charAt(19) != '.' || source.charAt(26) != ':') {
+            return INVALID_MILLIS;
+        }
+        char sign = source.charAt(MILLIS_LENGTH);
+        if (sign != '+' && sign != '-') {
+            return INVALID_MILLIS;
+        }
+        int year = readDigits(source, 0, 4);
+        int month = readDigits(source, 5, 2);
+        int day = readDigits(source, 8, 2);
+        int hour = readDigits(source, 11, 2);
+        int minute = readDigits(source, 14, 2);
+        int second = readDigits(source, 17, 2);
+        int millis = readDigits(source, 20, 3);
+        int offsetHour = readDigits(source, 24, 2);
+        int offsetMinute = readDigits(source, 27, 2);
+        if ((hour | minute | second | millis | offsetHour | offsetMinute) < 0 || hour > 23 || minute > 59
+                || second > 59 || offsetHour > 18 || offsetMinute > 59) {
+            return INVALID_MILLIS;
+        }
+        if (year < 1583 || month < 1 || month > 12 || day < 1
+                || day > 28 && day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+            return INVALID_MILLIS;
+        }
+        long epochDay = LocalDate.of(year, month, day).toEpochDay();
+        long localMillis = epochDay * MILLIS_PER_DAY + ((hour * 60L + minute) * 60 + second) * 1000 + millis;
+        long offset = (offsetHour * 60L + offsetMinute) * MILLIS_PER_MINUTE;
+        return sign == '+' ? localMillis - offset : localMillis + offset;
+    }
+
+    private static boolean inFastRange(long millis) {
+        return millis >= MIN_FAST_MILLIS && millis <= MAX_FAST_MILLIS;
+    }
+
+    /**
+     * FastDateFormat builds the calendar of the default locale, eg: th_TH uses the Buddhist calendar
+     */
+    private static boolean isGregorianLocale() {
+        Locale locale = Locale.getDefault();
+        if (locale != checkedLocale) {
+            gregorianLocale = Calendar.getInstance(locale).getClass() == GregorianCalendar.class;
+            checkedLocale = locale;
+        }
+        return gregorianLocale;
+    }
+
+    /**
+     * Write yyyy-MM-dd HH:mm:ss.SSS of local millis, the separator between date and time is given
+     */
+    private static void writeLocal(char[] chars, long localMillis, char separator) {
+        long epochDay = Math.floorDiv(localMillis, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(localMillis, MILLIS_PER_DAY);
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        writeDigits(chars, 0, date.getYear(), 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, date.getMonthValue(), 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, date.getDayOfMonth(), 2);
+        chars[10] = separator;
+        writeDigits(chars, 11, millisOfDay / 3600000, 2);
+        chars[13] = ':';
+        writeDigits(chars, 14, millisOfDay / MILLIS_PER_MINUTE % 60, 2);
+        chars[16] = ':';
+        writeDigits(chars, 17, millisOfDay / 1000 % 60, 2);
+        chars[19] = '.';
+        writeDigits(chars, 20, millisOfDay % 1000, 3);
+    }
+
+    private static void writeDigits(char[] chars, int offset, int value, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * @return -1 if there is a non-digit char
+     */
+    private static int readDigits(String source, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = source.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
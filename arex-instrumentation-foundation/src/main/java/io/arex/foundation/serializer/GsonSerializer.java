@@ -2,42 +2,49 @@ package io.arex.foundation.serializer;
 
 import com.google.auto.service.AutoService;
 
-import io.arex.agent.thirdparty.util.time.DateFormatUtils;
 import io.arex.foundation.serializer.JacksonSerializer.DateFormatParser;
 import io.arex.foundation.util.NumberTypeAdaptor;
 import io.arex.agent.bootstrap.util.StringUtil;
 import com.google.gson.Gson;
 import com.google.gson.JsonDeserializer;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import io.arex.inst.runtime.log.LogManager;
+import io.arex.inst.runtime.serializer.NestedCollectionDescriptor;
+import io.arex.inst.runtime.serializer.SerializeSizeExceededException;
+import io.arex.inst.runtime.serializer.SizeLimitedWriter;
 import io.arex.inst.runtime.serializer.StringSerializable;
 import io.arex.inst.runtime.util.TypeUtil;
 import java.sql.Time;
 import java.time.Instant;
-import java.time.format.DateTimeFormatter;
 import java.util.Map.Entry;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
-import org.joda.time.format.DateTimeFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.gson.*;
 
-import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
 import java.lang.reflect.Type;
 import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @AutoService(StringSerializable.class)
 public class GsonSerializer implements StringSerializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(GsonSerializer.class);
 
     private static final JsonSerializer<DateTime> DATE_TIME_JSON_SERIALIZER =
-            ((src, typeOfSrc, context) -> new JsonPrimitive(src.toString(JacksonSerializer.DatePatternConstants.SIMPLE_DATE_FORMAT_WITH_TIMEZONE_DATETIME)));
+            ((src, typeOfSrc, context) -> new JsonPrimitive(DateFormatParser.JODA_DATE_TIME_FORMATTER.print(src)));
     private static final JsonDeserializer<DateTime> DATE_TIME_JSON_DESERIALIZER =
             (json, type, context) -> {
                 TimeZone timeZone = JacksonSerializer.TimezoneParser.INSTANCE.parse(json.getAsString());
@@ -50,81 +57,73 @@ public class GsonSerializer implements StringSerializable {
             };
 
     private static final JsonSerializer<org.joda.time.LocalDateTime> JODA_LOCAL_DATE_TIME_JSON_SERIALIZER =
-            (src, typeOfSrc, context) -> new JsonPrimitive(src.toString(JacksonSerializer.DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS));
+            (src, typeOfSrc, context) -> new JsonPrimitive(DateFormatParser.JODA_LOCAL_DATE_TIME_FORMATTER.print(src));
     private static final JsonDeserializer<org.joda.time.LocalDateTime> JODA_LOCAL_DATE_TIME_JSON_DESERIALIZER = (json, type, context) ->
-            org.joda.time.LocalDateTime.parse(json.getAsString(), DateTimeFormat.forPattern(JacksonSerializer.DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS));
+            org.joda.time.LocalDateTime.parse(json.getAsString(), DateFormatParser.JODA_LOCAL_DATE_TIME_FORMATTER);
 
     private static final JsonSerializer<org.joda.time.LocalDate> JODA_LOCAL_DATE_JSON_SERIALIZER =
-            (src, typeOfSrc, context) -> new JsonPrimitive(src.toString(JacksonSerializer.DatePatternConstants.SHORT_DATE_FORMAT));
+            (src, typeOfSrc, context) -> new JsonPrimitive(DateFormatParser.JODA_LOCAL_DATE_FORMATTER.print(src));
     private static final JsonDeserializer<org.joda.time.LocalDate> JODA_LOCAL_DATE_JSON_DESERIALIZER = (json, type, context) ->
-            org.joda.time.LocalDate.parse(json.getAsString(), DateTimeFormat.forPattern(JacksonSerializer.DatePatternConstants.SHORT_DATE_FORMAT));
+            org.joda.time.LocalDate.parse(json.getAsString(), DateFormatParser.JODA_LOCAL_DATE_FORMATTER);
 
     private static final JsonSerializer<org.joda.time.LocalTime> JODA_LOCAL_TIME_JSON_SERIALIZER =
-            (src, typeOfSrc, context) -> new JsonPrimitive(src.toString(JacksonSerializer.DatePatternConstants.SHORT_TIME_FORMAT_MILLISECOND));
+            (src, typeOfSrc, context) -> new JsonPrimitive(DateFormatParser.JODA_LOCAL_TIME_FORMATTER.print(src));
     private static final JsonDeserializer<org.joda.time.LocalTime> JODA_LOCAL_TIME_JSON_DESERIALIZER = (json, type, context) ->
-            org.joda.time.LocalTime.parse(json.getAsString(), DateTimeFormat.forPattern(JacksonSerializer.DatePatternConstants.SHORT_TIME_FORMAT_MILLISECOND));
+            org.joda.time.LocalTime.parse(json.getAsString(), DateFormatParser.JODA_LOCAL_TIME_FORMATTER);
 
     private static final JsonSerializer<LocalDateTime> LOCAL_DATE_TIME_JSON_SERIALIZER =
-        ((src, typeOfSrc, context) -> new JsonPrimitive(src.format(DateTimeFormatter.ofPattern(JacksonSerializer.DatePatternConstants.localDateTimeFormat))));
+        ((src, typeOfSrc, context) -> new JsonPrimitive(DateFormatParser.LOCAL_DATE_TIME_FORMATTER.format(src)));
     private static final JsonDeserializer<LocalDateTime> LOCAL_DATE_TIME_JSON_DESERIALIZER = (json, type, context) ->
-            LocalDateTime.parse(json.getAsString(), JacksonSerializer.DateFormatParser.INSTANCE.getFormatter(JacksonSerializer.DatePatternConstants.localDateTimeFormat));
+            LocalDateTime.parse(json.getAsString(), DateFormatParser.LOCAL_DATE_TIME_FORMATTER);
     private static final JsonSerializer<LocalDate> LOCAL_DATE_JSON_SERIALIZER =
-        ((src, typeOfSrc, context) -> new JsonPrimitive(src.format(DateTimeFormatter.ofPattern(JacksonSerializer.DatePatternConstants.SHORT_DATE_FORMAT))));
+        ((src, typeOfSrc, context) -> new JsonPrimitive(DateFormatParser.LOCAL_DATE_FORMATTER.format(src)));
 
     private static final JsonDeserializer<LocalDate> LOCAL_DATE_JSON_DESERIALIZER = (json, type, context) ->
-            LocalDate.parse(json.getAsString(), JacksonSerializer.DateFormatParser.INSTANCE.getFormatter(JacksonSerializer.DatePatternConstants.SHORT_DATE_FORMAT));
+            LocalDate.parse(json.getAsString(), DateFormatParser.LOCAL_DATE_FORMATTER);
 
     private static final JsonSerializer<LocalTime> LOCAL_TIME_JSON_SERIALIZER =
-        ((src, typeOfSrc, context) -> new JsonPrimitive(src.format(DateTimeFormatter.ofPattern(JacksonSerializer.DatePatternConstants.localTimeFormat))));
+        ((src, typeOfSrc, context) -> new JsonPrimitive(DateFormatParser.LOCAL_TIME_FORMATTER.format(src)));
 
     private static final JsonDeserializer<LocalTime> LOCAL_TIME_JSON_DESERIALIZER = (json, type, context) ->
-            LocalTime.parse(json.getAsString(), JacksonSerializer.DateFormatParser.INSTANCE.getFormatter(JacksonSerializer.DatePatternConstants.localTimeFormat));
+            LocalTime.parse(json.getAsString(), DateFormatParser.LOCAL_TIME_FORMATTER);
 
     private static final JsonSerializer<Calendar> CALENDAR_JSON_SERIALIZER =
-        (((src, typeOfSrc, context) -> new JsonPrimitive(
-            DateFormatUtils.format(src, JacksonSerializer.DatePatternConstants.SIMPLE_DATE_FORMAT_WITH_TIMEZONE, src.getTimeZone()))));
+        (((src, typeOfSrc, context) -> new JsonPrimitive(EpochMillisFormatter.formatWithZone(src))));
 
     private static final JsonDeserializer<Calendar> CALENDAR_JSON_DESERIALIZER = (json, type, context) ->
             JacksonSerializer.DateFormatParser.INSTANCE.parseCalendar(json.getAsString());
 
     private static final JsonSerializer<GregorianCalendar> GREGORIAN_CALENDAR_JSON_SERIALIZER =
-        (((src, typeOfSrc, context) -> new JsonPrimitive(DateFormatUtils.format(src, JacksonSerializer.DatePatternConstants.SIMPLE_DATE_FORMAT_WITH_TIMEZONE, src.getTimeZone()))));
+        (((src, typeOfSrc, context) -> new JsonPrimitive(EpochMillisFormatter.formatWithZone(src))));
 
     private static final JsonDeserializer<GregorianCalendar> GREGORIAN_CALENDAR_JSON_DESERIALIZER = (json, type, context) ->
             JacksonSerializer.DateFormatParser.INSTANCE.parseGregorianCalendar(json.getAsString());
 
     private static final JsonSerializer<XMLGregorianCalendar> XML_GREGORIAN_CALENDAR_JSON_SERIALIZER =
         (((src, typeOfSrc, context) -> {
-            GregorianCalendar calendar = src.toGregorianCalendar();
-            return new JsonPrimitive(DateFormatUtils.format(calendar, JacksonSerializer.DatePatternConstants.SIMPLE_DATE_FORMAT_WITH_TIMEZONE, calendar.getTimeZone()));
+            return new JsonPrimitive(EpochMillisFormatter.formatWithZone(src.toGregorianCalendar()));
         }));
 
     private static final JsonDeserializer<XMLGregorianCalendar> XML_GREGORIAN_CALENDAR_JSON_DESERIALIZER =
             (json, type, context) -> {
                 GregorianCalendar calendar = JacksonSerializer.DateFormatParser.INSTANCE.parseGregorianCalendar(json.getAsString());
-                XMLGregorianCalendar xmlGregorianCalendar = null;
-                try {
-                    xmlGregorianCalendar = DatatypeFactory.newInstance().newXMLGregorianCalendar(calendar);
-                } catch (Exception ex) {
-                    LOGGER.warn("XMLGregorianCalendar.deserialize", ex);
-                }
-                return xmlGregorianCalendar;
+                return JacksonSerializer.DateFormatParser.INSTANCE.toXMLGregorianCalendar(calendar);
             };
 
     private static final JsonSerializer<Timestamp> TIMESTAMP_JSON_SERIALIZER =
-        (((src, typeOfSrc, context) -> new JsonPrimitive(DateFormatUtils.format(src, JacksonSerializer.DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS))));
+        (((src, typeOfSrc, context) -> new JsonPrimitive(EpochMillisFormatter.format(src))));
 
     private static final JsonDeserializer<Timestamp> TIMESTAMP_JSON_DESERIALIZER = (json, typeOfT, context) ->
             Optional.ofNullable(JacksonSerializer.DateFormatParser.INSTANCE.parseDate(json.getAsString()))
                     .map(date -> new Timestamp(date.getTime())).orElse(new Timestamp(System.currentTimeMillis()));
 
     private static final JsonSerializer<Date> DATE_JSON_SERIALIZER =
-        (((src, typeOfSrc, context) -> new JsonPrimitive(DateFormatUtils.format(src, JacksonSerializer.DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS))));
+        (((src, typeOfSrc, context) -> new JsonPrimitive(EpochMillisFormatter.format(src))));
     private static final JsonDeserializer<Date> DATE_JSON_DESERIALIZER = (json, type, context) ->
             DateFormatParser.INSTANCE.parseDate(json.getAsString());
 
     private static final JsonSerializer<java.sql.Date> SQL_DATE_JSON_SERIALIZER =
-        (((src, typeOfSrc, context) -> new JsonPrimitive(DateFormatUtils.format(src, JacksonSerializer.DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS))));
+        (((src, typeOfSrc, context) -> new JsonPrimitive(EpochMillisFormatter.format(src))));
 
     private static final JsonDeserializer<java.sql.Date> SQL_DATE_JSON_DESERIALIZER = (json, type, context) ->{
         Date date = DateFormatParser.INSTANCE.parseDate(json.getAsString());
@@ -132,7 +131,7 @@ public class GsonSerializer implements StringSerializable {
     };
 
     private static final JsonSerializer<Time> TIME_JSON_SERIALIZER =
-        (((src, typeOfSrc, context) -> new JsonPrimitive(DateFormatUtils.format(src, JacksonSerializer.DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS))));
+        (((src, typeOfSrc, context) -> new JsonPrimitive(EpochMillisFormatter.format(src))));
 
     private static final JsonDeserializer<Time> TIME_JSON_DESERIALIZER = (json, type, context) -> {
         Date date = DateFormatParser.INSTANCE.parseDate(json.getAsString());
@@ -154,6 +153,7 @@ public class GsonSerializer implements StringSerializable {
 
     public static final GsonSerializer INSTANCE = new GsonSerializer();
     private Gson serializer;
+    private TypeAdapterCache adapterCache;
     private GsonBuilder gsonBuilder;
 
     @Override
@@ -164,7 +164,7 @@ public class GsonSerializer implements StringSerializable {
         } else {
             this.gsonBuilder.registerTypeAdapter(clazz, typeSerializer);
         }
-        this.serializer = gsonBuilder.create();
+        createSerializer();
     }
 
     public GsonSerializer() {
@@ -204,7 +204,13 @@ public class GsonSerializer implements StringSerializable {
                 .enableComplexMapKeySerialization()
                 .setExclusionStrategies(new ExcludeField())
                 .disableHtmlEscaping();
-        serializer = gsonBuilder.create();
+        createSerializer();
+    }
+
+    private void createSerializer() {
+        Gson gson = gsonBuilder.create();
+        this.adapterCache = new TypeAdapterCache(gson);
+        this.serializer = gson;
     }
 
 
@@ -273,7 +279,44 @@ public class GsonSerializer implements StringSerializable {
         if (object == null) {
             return null;
         }
-        return serializer.toJson(object);
+        PooledStringWriter writer = PooledStringWriter.acquire();
+        try {
+            toJson(object, writer);
+            return writer.toString();
+        } finally {
+            writer.release();
+        }
+    }
+
+    @Override
+    public String serialize(Object object, long maxBytes) throws SerializeSizeExceededException {
+        if (object == null) {
+            return null;
+        }
+        SizeLimitedWriter writer = new SizeLimitedWriter(maxBytes);
+        try {
+            toJson(object, writer);
+        } catch (JsonIOException e) {
+            if (e.getCause() instanceof SerializeSizeExceededException) {
+                throw (SerializeSizeExceededException) e.getCause();
+            }
+            throw e;
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Same as {@link Gson#toJson(Object, Appendable)}, but the type adapter is taken from the local cache
+     */
+    private void toJson(Object object, Writer writer) {
+        TypeAdapterCache cache = adapterCache;
+        try {
+            JsonWriter jsonWriter = cache.gson.newJsonWriter(writer);
+            jsonWriter.setLenient(true);
+            cache.get(object.getClass()).write(jsonWriter, object);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
     }
 
     @Override
@@ -293,11 +336,67 @@ public class GsonSerializer implements StringSerializable {
         return serializer.fromJson(json, type);
     }
 
+    @Override
+    public boolean deserializeNestedCollection(String json, NestedCollectionDescriptor descriptor) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                return false;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                JsonToken token = reader.peek();
+                if (token == JsonToken.NULL) {
+                    reader.nextNull();
+                    descriptor.add(null);
+                    continue;
+                }
+                if (token != JsonToken.BEGIN_ARRAY) {
+                    return false;
+                }
+                descriptor.add(serializer.fromJson(reader, descriptor.nextType()));
+            }
+            reader.endArray();
+            return reader.peek() == JsonToken.END_DOCUMENT;
+        }
+    }
+
     @Override
     public StringSerializable reCreateSerializer() {
         return new GsonSerializer();
     }
 
+    /**
+     * Gson resolves the excluded fields when the type adapter is created, so the adapters are recreated
+     * from the same builder, the registered type serializers are kept.
+     */
+    @Override
+    public boolean reloadConfig() {
+        createSerializer();
+        return true;
+    }
+
+    /**
+     * Type adapters of the runtime classes, resolved once per class instead of going through
+     * the thread local call map of {@link Gson#getAdapter} on every serialization.
+     */
+    private static final class TypeAdapterCache {
+        private final Gson gson;
+        private final ConcurrentMap<Class<?>, TypeAdapter<Object>> adapters = new ConcurrentHashMap<>();
+
+        private TypeAdapterCache(Gson gson) {
+            this.gson = gson;
+        }
+
+        private TypeAdapter<Object> get(Class<?> clazz) {
+            TypeAdapter<Object> adapter = adapters.get(clazz);
+            if (adapter == null) {
+                adapter = (TypeAdapter<Object>) gson.getAdapter(clazz);
+                adapters.putIfAbsent(clazz, adapter);
+            }
+            return adapter;
+        }
+    }
+
     static class ExcludeField implements ExclusionStrategy {
         @Override
         public boolean shouldSkipField(FieldAttributes f) {
@@ -309,7 +408,7 @@ public class GsonSerializer implements StringSerializable {
             if (MONGO_CLASS_LIST.contains(className) && !MONGO_FIELD_LIST.contains(fieldName)) {
                 return true;
             }
-            List<String> fieldNameList = JacksonSerializer.INSTANCE.getSkipFieldNameList(className);
+            List<String> fieldNameList = SkipRuleTable.INSTANCE.getSkipFieldNameList(className);
 
             if (fieldNameList == null) {
                 return false;
@@ -6,18 +6,21 @@ import io.arex.agent.bootstrap.util.StringUtil;
 import com.fasterxml.jackson.annotation.JsonIgnoreType;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
 import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
 
-import io.arex.agent.thirdparty.util.time.DateFormatUtils;
 import io.arex.agent.thirdparty.util.time.FastDateFormat;
 import io.arex.foundation.util.JdkUtils;
 import io.arex.inst.runtime.log.LogManager;
 import io.arex.inst.runtime.config.Config;
 import io.arex.inst.runtime.model.ArexConstants;
 import io.arex.inst.runtime.model.SerializeSkipInfo;
+import io.arex.inst.runtime.serializer.NestedCollectionDescriptor;
+import io.arex.inst.runtime.serializer.SizeLimitedWriter;
 import io.arex.inst.runtime.serializer.StringSerializable;
 import io.arex.inst.runtime.util.TypeUtil;
 
@@ -53,7 +56,6 @@ public final class JacksonSerializer implements StringSerializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JacksonSerializer.class);
 
     private final ObjectMapper MAPPER = new ObjectMapper();
-    private final Map<String, List<String>> skipInfoMap = new ConcurrentHashMap<>();
     private static final SimpleModule MODULE = new JacksonSimpleModule();
 
     public static JacksonSerializer INSTANCE = new JacksonSerializer();
@@ -72,30 +74,41 @@ public final class JacksonSerializer implements StringSerializable {
         MAPPER.registerModule(MODULE);
     }
 
+    /**
+     * Parse the skip info config and swap it into {@link SkipRuleTable}, the bean serializers read the rules
+     * on every serialization, so the serializer caches are kept unless a class gets its first rule.
+     */
     private void buildSkipInfoMap() {
         try {
             Config config = Config.get();
             if (config == null) {
                 return;
             }
+            Map<String, List<String>> skipInfoMap = new HashMap<>();
             String skipInfoString = config
                     .getString(ArexConstants.SERIALIZE_SKIP_INFO_CONFIG_KEY, StringUtil.EMPTY);
-            if (StringUtil.isBlank(skipInfoString)) {
-                return;
+            if (!StringUtil.isBlank(skipInfoString)) {
+                JavaType javaType = MAPPER.getTypeFactory().constructType(TypeUtil.forName(SKIP_INFO_LIST_TYPE));
+                List<SerializeSkipInfo> serializeSkipInfos = MAPPER.readValue(skipInfoString, javaType);
+                if (serializeSkipInfos != null) {
+                    for (SerializeSkipInfo skipInfo : serializeSkipInfos) {
+                        String className = skipInfo.getFullClassName();
+                        List<String> fieldNameList = skipInfo.getFieldNameList();
+                        if (StringUtil.isBlank(className) || fieldNameList == null) {
+                            continue;
+                        }
+                        skipInfoMap.put(className, fieldNameList);
+                    }
+                }
             }
-            JavaType javaType = MAPPER.getTypeFactory().constructType(TypeUtil.forName(SKIP_INFO_LIST_TYPE));
-            List<SerializeSkipInfo> serializeSkipInfos = MAPPER.readValue(skipInfoString, javaType);
-
-            if (serializeSkipInfos == null || serializeSkipInfos.isEmpty()) {
-                return;
+            Set<String> changedClasses = new HashSet<>();
+            if (SkipRuleTable.INSTANCE.update(skipInfoMap, changedClasses)) {
+                // the serializers built before the class had a rule don't check it, a new provider drops the cache
+                // (flushCachedSerializers keeps the read-only lookup map of jackson 2.13)
+                MAPPER.setSerializerProvider(new DefaultSerializerProvider.Impl());
             }
-            for (SerializeSkipInfo skipInfo : serializeSkipInfos) {
-                String className = skipInfo.getFullClassName();
-                List<String> fieldNameList = skipInfo.getFieldNameList();
-                if (StringUtil.isBlank(className) || fieldNameList == null) {
-                    continue;
-                }
-                skipInfoMap.put(className, fieldNameList);
+            if (!changedClasses.isEmpty()) {
+                LOGGER.info("skip info changed, classes: {}", changedClasses);
             }
         } catch (Throwable ex) {
             LOGGER.warn("buildSkipInfoMap", ex);
@@ -103,7 +116,7 @@ public final class JacksonSerializer implements StringSerializable {
     }
 
     public List<String> getSkipFieldNameList(String className) {
-        return skipInfoMap.get(className);
+        return SkipRuleTable.INSTANCE.getSkipFieldNameList(className);
     }
 
     @Override
@@ -112,15 +125,42 @@ public final class JacksonSerializer implements StringSerializable {
             return null;
         }
 
+        if (ColumnarListCodec.applicable(MAPPER, object)) {
+            PooledStringWriter writer = PooledStringWriter.acquire();
+            try {
+                if (ColumnarListCodec.write(MAPPER, (List<?>) object, writer)) {
+                    return writer.toString();
+                }
+            } finally {
+                writer.release();
+            }
+        }
         return MAPPER.writeValueAsString(object);
     }
 
+    @Override
+    public String serialize(Object object, long maxBytes) throws Throwable {
+        if (object == null) {
+            return null;
+        }
+
+        SizeLimitedWriter writer = new SizeLimitedWriter(maxBytes);
+        if (ColumnarListCodec.applicable(MAPPER, object) && ColumnarListCodec.write(MAPPER, (List<?>) object, writer)) {
+            return writer.toString();
+        }
+        MAPPER.writeValue(writer, object);
+        return writer.toString();
+    }
+
     @Override
     public <T> T deserialize(String json, Class<T> clazz) throws Throwable {
         if (StringUtil.isEmpty(json) || clazz == null) {
             return null;
         }
 
+        if (Collection.class.isAssignableFrom(clazz) && ColumnarListCodec.isColumnar(json)) {
+            return ColumnarListCodec.read(MAPPER, json, MAPPER.getTypeFactory().constructType(clazz));
+        }
         return MAPPER.readValue(json, clazz);
     }
 
@@ -134,12 +174,43 @@ public final class JacksonSerializer implements StringSerializable {
         return deserialize(json, javaType);
     }
 
+    @Override
+    public boolean deserializeNestedCollection(String json, NestedCollectionDescriptor descriptor) throws Throwable {
+        try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return false;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == JsonToken.VALUE_NULL) {
+                    descriptor.add(null);
+                    continue;
+                }
+                if (token != JsonToken.START_ARRAY) {
+                    return false;
+                }
+                JavaType javaType = MAPPER.getTypeFactory().constructType(descriptor.nextType());
+                descriptor.add(MAPPER.readValue(parser, javaType));
+            }
+            return parser.nextToken() == null;
+        }
+    }
+
     @Override
     public StringSerializable reCreateSerializer() {
         INSTANCE = new JacksonSerializer();
         return INSTANCE;
     }
 
+    /**
+     * Only the skip rules are reloaded, the mapper and its warmed deserializer caches are kept.
+     */
+    @Override
+    public boolean reloadConfig() {
+        buildSkipInfoMap();
+        return true;
+    }
+
     @Override
     public boolean isDefault() {
         return true;
@@ -147,6 +218,9 @@ public final class JacksonSerializer implements StringSerializable {
 
     public <T> T deserialize(String json, JavaType javaType) {
         try {
+            if (javaType.isCollectionLikeType() && ColumnarListCodec.isColumnar(json)) {
+                return ColumnarListCodec.read(MAPPER, json, javaType);
+            }
             return MAPPER.readValue(json, javaType);
         } catch (Throwable ex) {
             LogManager.warn("jackson-deserialize-type", ex);
@@ -227,23 +301,75 @@ public final class JacksonSerializer implements StringSerializable {
                 beanProperties.removeIf(beanPropertyWriter -> StringUtil.equals(beanPropertyWriter.getName(),"table"));
             }
 
-            List<String> fieldNameList = JacksonSerializer.INSTANCE.getSkipFieldNameList(className);
-
-            if (fieldNameList == null) {
+            // skip rules can change at runtime, so every property checks the current rule of its class
+            SkipRuleTable.ClassRule rule = SkipRuleTable.INSTANCE.getRule(className);
+            if (rule == SkipRuleTable.ClassRule.NONE) {
                 return beanProperties;
             }
+            for (int i = 0; i < beanProperties.size(); i++) {
+                BeanPropertyWriter writer = beanProperties.get(i);
+                // subclasses (virtual, attribute, unwrapping writers) override the serialization, a copy loses it
+                if (writer.getClass() == BeanPropertyWriter.class) {
+                    beanProperties.set(i, new SkipFieldPropertyWriter(writer, rule));
+                }
+            }
+            return beanProperties;
+        }
+    }
 
-            if (fieldNameList.isEmpty()) {
-                beanProperties.clear();
-                return beanProperties;
+    /**
+     * Property writer that omits the field while it matches the skip rule of the bean class
+     */
+    static class SkipFieldPropertyWriter extends BeanPropertyWriter {
+        private final transient SkipRuleTable.ClassRule rule;
+
+        SkipFieldPropertyWriter(BeanPropertyWriter base, SkipRuleTable.ClassRule rule) {
+            super(base);
+            this.rule = rule;
+        }
+
+        private SkipFieldPropertyWriter(SkipFieldPropertyWriter base, PropertyName name) {
+            super(base, name);
+            this.rule = base.rule;
+        }
+
+        @Override
+        protected BeanPropertyWriter _new(PropertyName newName) {
+            return new SkipFieldPropertyWriter(this, newName);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            if (rule.skip(getName())) {
+                return;
             }
+            super.serializeAsField(bean, gen, prov);
+        }
 
-            beanProperties.removeIf(beanPropertyWriter -> fieldNameList.contains(beanPropertyWriter.getName()));
-            return beanProperties;
+        @Override
+        public void serializeAsElement(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            if (rule.skip(getName())) {
+                if (!gen.canOmitFields()) {
+                    serializeAsPlaceholder(bean, gen, prov);
+                }
+                return;
+            }
+            super.serializeAsElement(bean, gen, prov);
         }
     }
 
 
+    /**
+     * Text of the scalar value, the tree is only read for an unexpected object or array
+     */
+    static String readText(JsonParser p) throws IOException {
+        if (p.currentToken() != null && p.currentToken().isScalarValue()) {
+            return p.getValueAsString();
+        }
+        JsonNode node = p.getCodec().readTree(p);
+        return node.asText();
+    }
+
     // region Custom Serializer/Deserialize
 
 
@@ -251,7 +377,7 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public void serialize(DateTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-            gen.writeString(value.toString(DatePatternConstants.SIMPLE_DATE_FORMAT_WITH_TIMEZONE_DATETIME));
+            gen.writeString(DateFormatParser.JODA_DATE_TIME_FORMATTER.print(value));
         }
     }
 
@@ -260,10 +386,10 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public DateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            TimeZone timeZone = TimezoneParser.INSTANCE.parse(node.asText());
+            String text = readText(p);
+            TimeZone timeZone = TimezoneParser.INSTANCE.parse(text);
             DateTimeZone dateTimeZone = DateTimeZone.forTimeZone(timeZone);
-            Date date = DateFormatParser.INSTANCE.parseDate(node.asText(), timeZone);
+            Date date = DateFormatParser.INSTANCE.parseDate(text, timeZone);
             if (date == null) {
                 return null;
             }
@@ -275,7 +401,7 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public void serialize(org.joda.time.LocalDateTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-            gen.writeString(value.toString(DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS));
+            gen.writeString(DateFormatParser.JODA_LOCAL_DATE_TIME_FORMATTER.print(value));
         }
     }
 
@@ -284,8 +410,8 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public org.joda.time.LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            return org.joda.time.LocalDateTime.parse(node.asText(), DateTimeFormat.forPattern(DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS));
+            String text = readText(p);
+            return org.joda.time.LocalDateTime.parse(text, DateFormatParser.JODA_LOCAL_DATE_TIME_FORMATTER);
         }
     }
 
@@ -293,7 +419,7 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public void serialize(org.joda.time.LocalDate value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-            gen.writeString(value.toString(DatePatternConstants.SHORT_DATE_FORMAT));
+            gen.writeString(DateFormatParser.JODA_LOCAL_DATE_FORMATTER.print(value));
         }
     }
 
@@ -302,8 +428,8 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public org.joda.time.LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            return org.joda.time.LocalDate.parse(node.asText(), DateTimeFormat.forPattern(DatePatternConstants.SHORT_DATE_FORMAT));
+            String text = readText(p);
+            return org.joda.time.LocalDate.parse(text, DateFormatParser.JODA_LOCAL_DATE_FORMATTER);
         }
     }
 
@@ -312,7 +438,7 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public void serialize(org.joda.time.LocalTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-            gen.writeString(value.toString(DatePatternConstants.SHORT_TIME_FORMAT_MILLISECOND));
+            gen.writeString(DateFormatParser.JODA_LOCAL_TIME_FORMATTER.print(value));
         }
     }
 
@@ -321,8 +447,8 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public org.joda.time.LocalTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            return org.joda.time.LocalTime.parse(node.asText(), DateTimeFormat.forPattern(DatePatternConstants.SHORT_TIME_FORMAT_MILLISECOND));
+            String text = readText(p);
+            return org.joda.time.LocalTime.parse(text, DateFormatParser.JODA_LOCAL_TIME_FORMATTER);
         }
     }
 
@@ -330,7 +456,7 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public void serialize(Date value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-            gen.writeString(DateFormatUtils.format(value, DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS));
+            gen.writeString(EpochMillisFormatter.format(value));
         }
     }
 
@@ -339,8 +465,8 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public Date deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            return DateFormatParser.INSTANCE.parseDate(node.asText());
+            String text = readText(p);
+            return DateFormatParser.INSTANCE.parseDate(text);
         }
     }
 
@@ -348,8 +474,8 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public java.sql.Date deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            Date date = DateFormatParser.INSTANCE.parseDate(node.asText());
+            String text = readText(p);
+            Date date = DateFormatParser.INSTANCE.parseDate(text);
             if (date == null) {
                 return new java.sql.Date(System.currentTimeMillis());
             }
@@ -361,8 +487,8 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public Time deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            Date date = DateFormatParser.INSTANCE.parseDate(node.asText());
+            String text = readText(p);
+            Date date = DateFormatParser.INSTANCE.parseDate(text);
             if (date == null) {
                 date = new Date();
             }
@@ -375,8 +501,7 @@ public final class JacksonSerializer implements StringSerializable {
         @Override
         public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider serializers)
                 throws IOException {
-            gen.writeString(
-                    value.format(DateFormatParser.INSTANCE.getFormatter(DatePatternConstants.localDateTimeFormat)));
+            gen.writeString(DateFormatParser.LOCAL_DATE_TIME_FORMATTER.format(value));
         }
     }
 
@@ -385,9 +510,8 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            return LocalDateTime.parse(node.asText(),
-                    DateFormatParser.INSTANCE.getFormatter(DatePatternConstants.localDateTimeFormat));
+            String text = readText(p);
+            return LocalDateTime.parse(text, DateFormatParser.LOCAL_DATE_TIME_FORMATTER);
         }
     }
 
@@ -396,8 +520,7 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-            gen.writeString(
-                    value.format(DateFormatParser.INSTANCE.getFormatter(DatePatternConstants.SHORT_DATE_FORMAT)));
+            gen.writeString(DateFormatParser.LOCAL_DATE_FORMATTER.format(value));
         }
     }
 
@@ -406,9 +529,9 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            return LocalDate.parse(node.asText(),
-                    DateFormatParser.INSTANCE.getFormatter(node.asText(), DatePatternConstants.SHORT_DATE_FORMAT));
+            String text = readText(p);
+            return LocalDate.parse(text,
+                    DateFormatParser.INSTANCE.getFormatter(text, DatePatternConstants.SHORT_DATE_FORMAT));
         }
     }
 
@@ -417,8 +540,7 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public void serialize(LocalTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-            gen.writeString(value
-                    .format(DateFormatParser.INSTANCE.getFormatter(DatePatternConstants.localTimeFormat)));
+            gen.writeString(DateFormatParser.LOCAL_TIME_FORMATTER.format(value));
         }
     }
 
@@ -427,9 +549,8 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public LocalTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            return LocalTime.parse(node.asText(), DateFormatParser.INSTANCE
-                    .getFormatter(DatePatternConstants.localTimeFormat));
+            String text = readText(p);
+            return LocalTime.parse(text, DateFormatParser.LOCAL_TIME_FORMATTER);
         }
     }
 
@@ -440,8 +561,7 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public void serialize(Calendar value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-            gen.writeString(DateFormatUtils
-                    .format(value, DatePatternConstants.SIMPLE_DATE_FORMAT_WITH_TIMEZONE, value.getTimeZone()));
+            gen.writeString(EpochMillisFormatter.formatWithZone(value));
         }
     }
 
@@ -450,8 +570,8 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public Calendar deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            return DateFormatParser.INSTANCE.parseCalendar(node.asText());
+            String text = readText(p);
+            return DateFormatParser.INSTANCE.parseCalendar(text);
         }
     }
 
@@ -461,8 +581,7 @@ public final class JacksonSerializer implements StringSerializable {
         @Override
         public void serialize(GregorianCalendar value, JsonGenerator gen, SerializerProvider serializers)
                 throws IOException {
-            gen.writeString(DateFormatUtils
-                    .format(value, DatePatternConstants.SIMPLE_DATE_FORMAT_WITH_TIMEZONE, value.getTimeZone()));
+            gen.writeString(EpochMillisFormatter.formatWithZone(value));
         }
     }
 
@@ -472,8 +591,8 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public GregorianCalendar deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            return DateFormatParser.INSTANCE.parseGregorianCalendar(node.asText());
+            String text = readText(p);
+            return DateFormatParser.INSTANCE.parseGregorianCalendar(text);
         }
     }
 
@@ -485,9 +604,7 @@ public final class JacksonSerializer implements StringSerializable {
         @Override
         public void serialize(XMLGregorianCalendar value, JsonGenerator gen, SerializerProvider serializers)
                 throws IOException {
-            GregorianCalendar calendar = value.toGregorianCalendar();
-            gen.writeString(DateFormatUtils
-                    .format(calendar, DatePatternConstants.SIMPLE_DATE_FORMAT_WITH_TIMEZONE, calendar.getTimeZone()));
+            gen.writeString(EpochMillisFormatter.formatWithZone(value.toGregorianCalendar()));
         }
     }
 
@@ -497,15 +614,9 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public XMLGregorianCalendar deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            GregorianCalendar gregorianCalendar = DateFormatParser.INSTANCE.parseGregorianCalendar(node.asText());
-            XMLGregorianCalendar xmlGregorianCalendar = null;
-            try {
-                xmlGregorianCalendar = DatatypeFactory.newInstance().newXMLGregorianCalendar(gregorianCalendar);
-            } catch (Exception ex) {
-                LOGGER.warn("XMLGregorianCalendar.deserialize", ex);
-            }
-            return xmlGregorianCalendar;
+            String text = readText(p);
+            GregorianCalendar gregorianCalendar = DateFormatParser.INSTANCE.parseGregorianCalendar(text);
+            return DateFormatParser.INSTANCE.toXMLGregorianCalendar(gregorianCalendar);
         }
     }
 
@@ -514,7 +625,7 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public void serialize(Timestamp value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-            gen.writeString(DateFormatUtils.format(value, DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS));
+            gen.writeString(EpochMillisFormatter.format(value));
 
         }
     }
@@ -524,8 +635,8 @@ public final class JacksonSerializer implements StringSerializable {
 
         @Override
         public Timestamp deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            return Optional.ofNullable(DateFormatParser.INSTANCE.parseDate(node.asText()))
+            String text = readText(p);
+            return Optional.ofNullable(DateFormatParser.INSTANCE.parseDate(text))
                     .map(date -> new Timestamp(date.getTime())).orElse(new Timestamp(System.currentTimeMillis()));
         }
     }
@@ -544,8 +655,8 @@ public final class JacksonSerializer implements StringSerializable {
         @Override
         public Instant deserialize(JsonParser p, DeserializationContext ctxt)
             throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            return Instant.parse(node.asText());
+            String text = readText(p);
+            return Instant.parse(text);
         }
     }
 
@@ -630,8 +741,24 @@ public final class JacksonSerializer implements StringSerializable {
         private static final Map<String, DateTimeFormatter> DEFAULT_FORMATTER_MAP = new ConcurrentHashMap<>();
         private static final Map<Integer, String> DATE_PATTERN_MAP = new HashMap<>();
 
+        // formatters are immutable and thread-safe, compiled once instead of resolving the pattern per value
+        static final DateTimeFormatter LOCAL_DATE_TIME_FORMATTER =
+                DateTimeFormatter.ofPattern(DatePatternConstants.localDateTimeFormat);
+        static final DateTimeFormatter LOCAL_DATE_FORMATTER = DateTimeFormatter.ofPattern(DatePatternConstants.SHORT_DATE_FORMAT);
+        static final DateTimeFormatter LOCAL_TIME_FORMATTER = DateTimeFormatter.ofPattern(DatePatternConstants.localTimeFormat);
+        static final org.joda.time.format.DateTimeFormatter JODA_DATE_TIME_FORMATTER =
+                DateTimeFormat.forPattern(DatePatternConstants.SIMPLE_DATE_FORMAT_WITH_TIMEZONE_DATETIME);
+        static final org.joda.time.format.DateTimeFormatter JODA_LOCAL_DATE_TIME_FORMATTER =
+                DateTimeFormat.forPattern(DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS);
+        static final org.joda.time.format.DateTimeFormatter JODA_LOCAL_DATE_FORMATTER =
+                DateTimeFormat.forPattern(DatePatternConstants.SHORT_DATE_FORMAT);
+        static final org.joda.time.format.DateTimeFormatter JODA_LOCAL_TIME_FORMATTER =
+                DateTimeFormat.forPattern(DatePatternConstants.SHORT_TIME_FORMAT_MILLISECOND);
+
         public static final DateFormatParser INSTANCE = new DateFormatParser();
 
+        private volatile DatatypeFactory datatypeFactory;
+
         private DateFormatParser() {
             initDatePatternMap();
         }
@@ -689,6 +816,12 @@ public final class JacksonSerializer implements StringSerializable {
                 return null;
             }
 
+            // yyyy-MM-dd'T'HH:mm:ss.SSS+08:00 is resolved by the offset in the text
+            long millis = EpochMillisFormatter.parseWithOffset(source);
+            if (millis != EpochMillisFormatter.INVALID_MILLIS) {
+                return new Date(millis);
+            }
+
             if (timeZone == null) {
                 timeZone = TimezoneParser.INSTANCE.parse(source);
             }
@@ -707,6 +840,23 @@ public final class JacksonSerializer implements StringSerializable {
             }
         }
 
+        /**
+         * DatatypeFactory.newInstance looks up the implementation by service loading, so the factory is created once
+         */
+        public XMLGregorianCalendar toXMLGregorianCalendar(GregorianCalendar calendar) {
+            try {
+                DatatypeFactory factory = datatypeFactory;
+                if (factory == null) {
+                    factory = DatatypeFactory.newInstance();
+                    datatypeFactory = factory;
+                }
+                return factory.newXMLGregorianCalendar(calendar);
+            } catch (Exception ex) {
+                LOGGER.warn("XMLGregorianCalendar.deserialize", ex);
+                return null;
+            }
+        }
+
         /**
          * Get datetime formatter
          *
@@ -0,0 +1,88 @@
+package io.arex.foundation.serializer;
+
+import java.io.Writer;
+
+/**
+ * Thread local string writer, the buffer is reused by the serializations of the same thread.
+ * A buffer grown over {@link #MAX_RETAINED_CAPACITY} is dropped on release, so a single large result
+ * does not pin memory on the thread.
+ */
+final class PooledStringWriter extends Writer {
+    private static final int INITIAL_CAPACITY = 1024;
+    static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<PooledStringWriter> POOL = ThreadLocal.withInitial(PooledStringWriter::new);
+
+    private StringBuilder builder = new StringBuilder(INITIAL_CAPACITY);
+    private boolean inUse;
+
+    private PooledStringWriter() {
+    }
+
+    /**
+     * Get the writer of current thread, must be released after use.
+     * A nested serialization on the same thread gets a new writer.
+     */
+    static PooledStringWriter acquire() {
+        PooledStringWriter writer = POOL.get();
+        if (writer.inUse) {
+            writer = new PooledStringWriter();
+        }
+        writer.inUse = true;
+        return writer;
+    }
+
+    void release() {
+        if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+            builder = new StringBuilder(INITIAL_CAPACITY);
+        } else {
+            builder.setLength(0);
+        }
+        inUse = false;
+    }
+
+    int capacity() {
+        return builder.capacity();
+    }
+
+    @Override
+    public void write(int c) {
+        builder.append((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        builder.append(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        builder.append(str, off, off + len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq) {
+        builder.append(csq);
+        return this;
+    }
+
+    @Override
+    public Writer append(char c) {
+        builder.append(c);
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        // nothing to flush
+    }
+
+    @Override
+    public void close() {
+        // released by the owner
+    }
+
+    @Override
+    public String toString() {
+        return builder.toString();
+    }
+}
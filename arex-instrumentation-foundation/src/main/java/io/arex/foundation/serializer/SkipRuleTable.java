@@ -0,0 +1,112 @@
+package io.arex.foundation.serializer;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hot-swappable skip field rules of the serializeSkipInfoList config.
+ * <p>
+ * Serializers hold the {@link ClassRule} of a class and read its fields on every serialization,
+ * so a config change only swaps the fields of the affected classes and no serializer cache needs to be rebuilt.
+ * Only the classes with skip fields are kept, the others share {@link ClassRule#NONE}: a class getting its first
+ * rule requires the serializers built with NONE to be rebuilt.
+ */
+final class SkipRuleTable {
+    static final SkipRuleTable INSTANCE = new SkipRuleTable();
+
+    private final ConcurrentMap<String, ClassRule> rules = new ConcurrentHashMap<>();
+
+    private SkipRuleTable() {
+    }
+
+    /**
+     * @return {@link ClassRule#NONE} if the class has no skip fields
+     */
+    ClassRule getRule(String className) {
+        ClassRule rule = rules.get(className);
+        return rule == null ? ClassRule.NONE : rule;
+    }
+
+    int size() {
+        return rules.size();
+    }
+
+    /**
+     * @return null if the class has no skip fields, empty list means skip all fields
+     */
+    List<String> getSkipFieldNameList(String className) {
+        ClassRule rule = rules.get(className);
+        return rule == null ? null : rule.fieldNameList;
+    }
+
+    /**
+     * Replace all rules with the new skip info, the rules of the classes without skip fields are evicted
+     * (serializers holding them skip nothing from now on)
+     *
+     * @param skipInfoMap class name to skip field names
+     * @param changedClasses filled with the class names whose rule changed
+     * @return true if a class got its first rule, the serializers built before must be rebuilt
+     */
+    synchronized boolean update(Map<String, List<String>> skipInfoMap, Set<String> changedClasses) {
+        Iterator<ClassRule> iterator = rules.values().iterator();
+        while (iterator.hasNext()) {
+            ClassRule rule = iterator.next();
+            List<String> fieldNameList = skipInfoMap.get(rule.className);
+            if (rule.update(fieldNameList)) {
+                changedClasses.add(rule.className);
+            }
+            if (fieldNameList == null) {
+                iterator.remove();
+            }
+        }
+        boolean added = false;
+        for (Map.Entry<String, List<String>> entry : skipInfoMap.entrySet()) {
+            if (!rules.containsKey(entry.getKey())) {
+                ClassRule rule = new ClassRule(entry.getKey());
+                rule.update(entry.getValue());
+                rules.put(entry.getKey(), rule);
+                changedClasses.add(entry.getKey());
+                added = true;
+            }
+        }
+        return added;
+    }
+
+    static final class ClassRule {
+        /**
+         * rule of the classes without skip fields, never updated
+         */
+        static final ClassRule NONE = new ClassRule(null);
+
+        private final String className;
+        private volatile List<String> fieldNameList;
+        private volatile Set<String> fieldNames;
+
+        private ClassRule(String className) {
+            this.className = className;
+        }
+
+        boolean skip(String fieldName) {
+            Set<String> names = fieldNames;
+            if (names == null) {
+                return false;
+            }
+            return names.isEmpty() || names.contains(fieldName);
+        }
+
+        private boolean update(List<String> newFieldNameList) {
+            if (newFieldNameList == null ? fieldNameList == null : newFieldNameList.equals(fieldNameList)) {
+                return false;
+            }
+            this.fieldNames = newFieldNameList == null ? null : Collections.unmodifiableSet(new HashSet<>(newFieldNameList));
+            this.fieldNameList = newFieldNameList;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.arex.foundation.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.arex.agent.thirdparty.util.time.DateFormatUtils;
+import io.arex.agent.thirdparty.util.time.FastDateFormat;
+import io.arex.foundation.serializer.JacksonSerializer.DatePatternConstants;
+import java.text.ParseException;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.jupiter.api.Test;
+
+class EpochMillisFormatterTest {
+    private static final String[] ZONES = {"UTC", "Asia/Shanghai", "America/New_York", "Asia/Kolkata",
+        "Asia/Kathmandu", "Europe/London", "Australia/Lord_Howe"};
+
+    @Test
+    void formatSameAsFastDateFormat() throws ParseException {
+        Random random = new Random(42);
+        TimeZone defaultZone = TimeZone.getDefault();
+        try {
+            for (String zone : ZONES) {
+                TimeZone timeZone = TimeZone.getTimeZone(zone);
+                TimeZone.setDefault(timeZone);
+                for (int i = 0; i < 2000; i++) {
+                    // 1500 ~ 2500
+                    long millis = (long) ((random.nextDouble() - 0.47) * 1000 * 365.25 * 86400000L);
+                    Date date = new Date(millis);
+                    assertEquals(DateFormatUtils.format(date, DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS),
+                        EpochMillisFormatter.format(date));
+
+                    Calendar calendar = new GregorianCalendar(timeZone);
+                    calendar.setTimeInMillis(millis);
+                    String withZone = EpochMillisFormatter.formatWithZone(calendar);
+                    assertEquals(DateFormatUtils.format(calendar, DatePatternConstants.SIMPLE_DATE_FORMAT_WITH_TIMEZONE,
+                        timeZone), withZone);
+                    if (millis > -12212467200000L) {
+                        // same as parsing by FastDateFormat in the zone of the text offset
+                        TimeZone offsetZone = TimeZone.getTimeZone("GMT" + withZone.substring(23));
+                        long expected = FastDateFormat.getInstance(DatePatternConstants.SIMPLE_DATE_FORMAT_MILLIS, offsetZone)
+                            .parse(withZone.substring(0, 23).replace('T', ' ')).getTime();
+                        assertEquals(expected, EpochMillisFormatter.parseWithOffset(withZone));
+                    }
+                }
+            }
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @Test
+    void parseInvalid() {
+        assertEquals(EpochMillisFormatter.INVALID_MILLIS, EpochMillisFormatter.parseWithOffset("2023-01-01 00:00:00.000"));
+        assertEquals(EpochMillisFormatter.INVALID_MILLIS,
+            EpochMillisFormatter.parseWithOffset("2023-02-30T00:00:00.000+08:00"));
+        assertEquals(EpochMillisFormatter.INVALID_MILLIS,
+            EpochMillisFormatter.parseWithOffset("2023-01-01T0a:00:00.000+08:00"));
+        assertEquals(EpochMillisFormatter.INVALID_MILLIS,
+            EpochMillisFormatter.parseWithOffset("2023-01-01T00:00:00.000*08:00"));
+        assertEquals(1672502400000L, EpochMillisFormatter.parseWithOffset("2023-01-01T00:00:00.000+08:00"));
+    }
+}
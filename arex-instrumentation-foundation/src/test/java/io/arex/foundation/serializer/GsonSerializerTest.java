@@ -5,9 +5,12 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.google.gson.internal.LinkedTreeMap;
+import io.arex.inst.runtime.serializer.SerializeSizeExceededException;
 import io.arex.inst.runtime.util.TypeUtil;
 import java.sql.Time;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
@@ -134,4 +137,27 @@ class GsonSerializerTest {
         json = GsonSerializer.INSTANCE.serialize(map);
         assertEquals("{\"key\":\"value\",\"long-java.lang.Long\":2}", json);
     }
-}
\ No newline at end of file
+
+    @Test
+    void serializeWithSizeLimit() throws Throwable {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(new TimeTestInfo(LocalDateTime.now()));
+        }
+        assertThrows(SerializeSizeExceededException.class, () -> GsonSerializer.INSTANCE.serialize(list, 1024));
+
+        List<Object> smallList = list.subList(0, 1);
+        assertEquals(GsonSerializer.INSTANCE.serialize(smallList), GsonSerializer.INSTANCE.serialize(smallList, 1024 * 1024));
+        assertNull(GsonSerializer.INSTANCE.serialize(null, 1024));
+    }
+
+    @Test
+    void serializeReusedWriter() {
+        List<Object> list = new ArrayList<>();
+        list.add("test");
+        String expected = GsonSerializer.INSTANCE.serialize(list);
+        // the pooled writer of current thread is cleared between calls
+        assertEquals(expected, GsonSerializer.INSTANCE.serialize(list));
+        assertEquals("[\"test\"]", expected);
+    }
+}
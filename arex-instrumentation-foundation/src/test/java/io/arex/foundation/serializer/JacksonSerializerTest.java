@@ -2,7 +2,16 @@ package io.arex.foundation.serializer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import io.arex.agent.bootstrap.constants.ConfigConstants;
+import io.arex.inst.runtime.config.ConfigBuilder;
+import io.arex.inst.runtime.model.ArexConstants;
+import io.arex.inst.runtime.serializer.SerializeSizeExceededException;
 import io.arex.inst.runtime.util.TypeUtil;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonAppend;
+import java.math.BigDecimal;
 import java.sql.Time;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -139,4 +148,321 @@ class JacksonSerializerTest {
         assertNotNull(JacksonSerializer.INSTANCE.deserialize(json, TypeUtil.forName(TypeUtil.getName(LocalDateTime.now()))));
     }
 
-}
\ No newline at end of file
+    @Test
+    void serializeWithSizeLimit() throws Throwable {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(new TimeTestInfo(LocalDateTime.now()));
+        }
+        assertThrows(SerializeSizeExceededException.class, () -> JacksonSerializer.INSTANCE.serialize(list, 1024));
+
+        List<Object> smallList = list.subList(0, 1);
+        assertEquals(JacksonSerializer.INSTANCE.serialize(smallList), JacksonSerializer.INSTANCE.serialize(smallList, 1024 * 1024));
+        assertNull(JacksonSerializer.INSTANCE.serialize(null, 1024));
+    }
+
+    @Test
+    void reloadSkipInfo() throws Throwable {
+        SkipBean bean = new SkipBean();
+        String skipClass = "[{\"fullClassName\":\"" + SkipBean.class.getName() + "\",\"fieldName\":\"age\"}]";
+        try {
+            // warm the serializer cache before the rule exists
+            assertEquals("{\"name\":\"test\",\"age\":18}", JacksonSerializer.INSTANCE.serialize(bean));
+
+            ConfigBuilder.create("test").addProperty(ArexConstants.SERIALIZE_SKIP_INFO_CONFIG_KEY, skipClass).build();
+            assertTrue(JacksonSerializer.INSTANCE.reloadConfig());
+            assertTrue(GsonSerializer.INSTANCE.reloadConfig());
+            assertEquals("{\"name\":\"test\"}", JacksonSerializer.INSTANCE.serialize(bean));
+            assertEquals("{\"name\":\"test\"}", GsonSerializer.INSTANCE.serialize(bean));
+            assertEquals(18, JacksonSerializer.INSTANCE.deserialize("{\"name\":\"test\",\"age\":18}", SkipBean.class).getAge());
+
+            // skip all fields
+            ConfigBuilder.create("test").addProperty(ArexConstants.SERIALIZE_SKIP_INFO_CONFIG_KEY,
+                skipClass.replace("age", "")).build();
+            JacksonSerializer.INSTANCE.reloadConfig();
+            assertEquals("{}", JacksonSerializer.INSTANCE.serialize(bean));
+        } finally {
+            ConfigBuilder.create("test").build();
+            JacksonSerializer.INSTANCE.reloadConfig();
+            GsonSerializer.INSTANCE.reloadConfig();
+        }
+        assertNull(JacksonSerializer.INSTANCE.getSkipFieldNameList(SkipBean.class.getName()));
+        assertEquals("{\"name\":\"test\",\"age\":18}", JacksonSerializer.INSTANCE.serialize(bean));
+        // only the classes with skip fields are kept
+        assertEquals(0, SkipRuleTable.INSTANCE.size());
+
+        // the rule of a class is added again after its serializer is cached
+        try {
+            ConfigBuilder.create("test").addProperty(ArexConstants.SERIALIZE_SKIP_INFO_CONFIG_KEY, skipClass).build();
+            JacksonSerializer.INSTANCE.reloadConfig();
+            assertEquals("{\"name\":\"test\"}", JacksonSerializer.INSTANCE.serialize(bean));
+        } finally {
+            ConfigBuilder.create("test").build();
+            JacksonSerializer.INSTANCE.reloadConfig();
+            GsonSerializer.INSTANCE.reloadConfig();
+        }
+    }
+
+    @Test
+    void skipInfoKeepsVirtualProperty() throws Throwable {
+        String skipClass = "[{\"fullClassName\":\"" + AppendBean.class.getName() + "\",\"fieldName\":\"age\"}]";
+        try {
+            ConfigBuilder.create("test").addProperty(ArexConstants.SERIALIZE_SKIP_INFO_CONFIG_KEY, skipClass).build();
+            JacksonSerializer.INSTANCE.reloadConfig();
+            assertEquals("{\"name\":\"test\",\"version\":null}", JacksonSerializer.INSTANCE.serialize(new AppendBean()));
+        } finally {
+            ConfigBuilder.create("test").build();
+            JacksonSerializer.INSTANCE.reloadConfig();
+        }
+    }
+
+    @JsonAppend(attrs = @JsonAppend.Attr(value = "version", include = JsonInclude.Include.ALWAYS))
+    public static class AppendBean extends SkipBean {
+    }
+
+    public static class SkipBean {
+        private String name = "test";
+        private int age = 18;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+    @Test
+    void columnarList() throws Throwable {
+        List<ColumnarBean> list = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            list.add(new ColumnarBean(i, i % 2 == 0 ? null : "name" + i, new BigDecimal("1.10")));
+        }
+        // disabled by default
+        assertTrue(JacksonSerializer.INSTANCE.serialize(list).startsWith("[{"));
+
+        ConfigBuilder.create("test").addProperty(ConfigConstants.SERIALIZE_COLUMNAR_THRESHOLD, "100").build();
+        try {
+            assertColumnarList(list);
+        } finally {
+            ConfigBuilder.create("test").build();
+        }
+    }
+
+    private void assertColumnarList(List<ColumnarBean> list) throws Throwable {
+        String json = JacksonSerializer.INSTANCE.serialize(list);
+        assertTrue(json.startsWith("{\"@columnar\":[\"id\",\"name\",\"price\",\"tags\"],\"@values\":[[0,1,2,"));
+        assertEquals(json, JacksonSerializer.INSTANCE.serialize(list, 1024 * 1024));
+        assertThrows(SerializeSizeExceededException.class, () -> JacksonSerializer.INSTANCE.serialize(list, 1024));
+
+        List<ColumnarBean> actual = JacksonSerializer.INSTANCE.deserialize(json,
+            TypeUtil.forName("java.util.ArrayList-" + ColumnarBean.class.getName()));
+        assertEquals(150, actual.size());
+        assertEquals("name1", actual.get(1).getName());
+        assertNull(actual.get(2).getName());
+        assertEquals(new BigDecimal("1.10").toString(), actual.get(3).getPrice().toString());
+        assertEquals(2, actual.get(4).getTags().size());
+        assertEquals(150, JacksonSerializer.INSTANCE.deserialize(json, ArrayList.class).size());
+
+        // list under the threshold
+        assertTrue(JacksonSerializer.INSTANCE.serialize(list.subList(0, 10)).startsWith("[{"));
+    }
+
+    @Test
+    void columnarListWithDifferentFields() throws Throwable {
+        List<SparseBean> list = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            list.add(new SparseBean(i == 100 ? "test" : null));
+        }
+        ConfigBuilder.create("test").addProperty(ConfigConstants.SERIALIZE_COLUMNAR_THRESHOLD, "100").build();
+        try {
+            String json = JacksonSerializer.INSTANCE.serialize(list);
+            assertTrue(json.startsWith("[{"));
+            List<SparseBean> actual = JacksonSerializer.INSTANCE.deserialize(json,
+                TypeUtil.forName("java.util.ArrayList-" + SparseBean.class.getName()));
+            assertEquals("test", actual.get(100).getName());
+        } finally {
+            ConfigBuilder.create("test").build();
+        }
+    }
+
+    @Test
+    void columnarListKeepsNumberTypes() throws Throwable {
+        List<ValueBean> list = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            list.add(new ValueBean(i % 2 == 0 ? (Object) 1.5 : (Object) i));
+        }
+        String rows = JacksonSerializer.INSTANCE.serialize(list);
+        ConfigBuilder.create("test").addProperty(ConfigConstants.SERIALIZE_COLUMNAR_THRESHOLD, "100").build();
+        try {
+            String json = JacksonSerializer.INSTANCE.serialize(list);
+            assertTrue(json.startsWith("{\"@columnar\":[\"value\"]"));
+            List<ValueBean> expected = JacksonSerializer.INSTANCE.deserialize(rows,
+                TypeUtil.forName("java.util.ArrayList-" + ValueBean.class.getName()));
+            List<ValueBean> actual = JacksonSerializer.INSTANCE.deserialize(json,
+                TypeUtil.forName("java.util.ArrayList-" + ValueBean.class.getName()));
+            assertEquals(Double.class, actual.get(0).getValue().getClass());
+            assertEquals(Integer.class, actual.get(1).getValue().getClass());
+            for (int i = 0; i < list.size(); i++) {
+                assertEquals(expected.get(i).getValue(), actual.get(i).getValue());
+            }
+        } finally {
+            ConfigBuilder.create("test").build();
+        }
+    }
+
+    @Test
+    void columnarListThreshold() {
+        assertEquals(0, ColumnarListCodec.threshold());
+        ConfigBuilder.create("test").addProperty(ConfigConstants.SERIALIZE_COLUMNAR_THRESHOLD, "100").build();
+        try {
+            assertEquals(100, ColumnarListCodec.threshold());
+            assertEquals(100, ColumnarListCodec.threshold());
+        } finally {
+            ConfigBuilder.create("test").build();
+        }
+        // reloaded after the config is updated
+        assertEquals(0, ColumnarListCodec.threshold());
+    }
+
+    @Test
+    void columnarListOfDifferentSizes() throws Throwable {
+        String json = "{\"@columnar\":[\"id\",\"name\"],\"@values\":[[1,2],[\"a\"]]}";
+        assertNull(JacksonSerializer.INSTANCE.deserialize(json,
+            TypeUtil.forName("java.util.ArrayList-" + ColumnarBean.class.getName())));
+        json = "{\"@columnar\":[\"id\",\"name\"],\"@values\":[[1],[\"a\",\"b\"]]}";
+        assertNull(JacksonSerializer.INSTANCE.deserialize(json,
+            TypeUtil.forName("java.util.ArrayList-" + ColumnarBean.class.getName())));
+    }
+
+    /**
+     * The elements without default constructor are read from the rebuilt row-wise json
+     */
+    @Test
+    void columnarListOfCreatorBeans() throws Throwable {
+        String json = "{\"@columnar\":[\"id\",\"name\"],\"@values\":[[1,2],[\"a\",null]]}";
+        List<CreatorBean> actual = JacksonSerializer.INSTANCE.deserialize(json,
+            TypeUtil.forName("java.util.ArrayList-" + CreatorBean.class.getName()));
+        assertEquals(2, actual.size());
+        assertEquals(2, actual.get(1).getId());
+        assertEquals("a", actual.get(0).getName());
+        assertNull(actual.get(1).getName());
+    }
+
+    public static class CreatorBean {
+        private final long id;
+        private final String name;
+
+        @JsonCreator
+        public CreatorBean(@JsonProperty("id") long id, @JsonProperty("name") String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class ValueBean {
+        private Object value;
+
+        public ValueBean() {
+        }
+
+        public ValueBean(Object value) {
+            this.value = value;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public void setValue(Object value) {
+            this.value = value;
+        }
+    }
+
+    public static class ColumnarBean {
+        private long id;
+        private String name;
+        private BigDecimal price;
+        private List<String> tags = new ArrayList<>();
+
+        public ColumnarBean() {
+        }
+
+        public ColumnarBean(long id, String name, BigDecimal price) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.tags.add("tag1");
+            this.tags.add("tag2");
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public void setPrice(BigDecimal price) {
+            this.price = price;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class SparseBean {
+        private String name;
+
+        public SparseBean() {
+        }
+
+        public SparseBean(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
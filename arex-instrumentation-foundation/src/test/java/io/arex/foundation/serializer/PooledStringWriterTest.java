@@ -0,0 +1,41 @@
+package io.arex.foundation.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PooledStringWriterTest {
+
+    @Test
+    void acquireAndRelease() {
+        PooledStringWriter writer = PooledStringWriter.acquire();
+        writer.write("test", 0, 4);
+        writer.write('-');
+        writer.write(new char[]{'a', 'b'}, 0, 2);
+        writer.append("c");
+        writer.append('d');
+        assertEquals("test-abcd", writer.toString());
+
+        // nested acquire on the same thread gets a new writer
+        PooledStringWriter nested = PooledStringWriter.acquire();
+        assertNotSame(writer, nested);
+        nested.release();
+
+        writer.release();
+        assertEquals("", writer.toString());
+        assertSame(writer, PooledStringWriter.acquire());
+        writer.release();
+    }
+
+    @Test
+    void dropLargeBuffer() {
+        PooledStringWriter writer = PooledStringWriter.acquire();
+        char[] chars = new char[PooledStringWriter.MAX_RETAINED_CAPACITY + 1];
+        writer.write(chars, 0, chars.length);
+        writer.release();
+        assertTrue(writer.capacity() <= PooledStringWriter.MAX_RETAINED_CAPACITY);
+    }
+}
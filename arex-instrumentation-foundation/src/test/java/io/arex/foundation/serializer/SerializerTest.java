@@ -43,6 +43,24 @@ class SerializerTest {
         assertEquals(doubleList, actualResult);
     }
 
+    @Test
+    void deserializeNestedCollection() {
+        Serializer.builder(JacksonSerializer.INSTANCE).addSerializer("gson", GsonSerializer.INSTANCE).build();
+        List<List<Object>> nestedList = new ArrayList<>();
+        nestedList.add(null);
+        nestedList.add(new ArrayList<>());
+        nestedList.add(CollectionUtil.newArrayList(LocalDate.of(2023, 1, 1)));
+        nestedList.add(CollectionUtil.newArrayList("a" + Serializer.SERIALIZE_SEPARATOR + "b"));
+        String typeName = TypeUtil.getName(nestedList);
+
+        for (String serializer : new String[]{null, "gson"}) {
+            String json = Serializer.serialize(nestedList, serializer);
+            assertEquals("[null,[],[\"2023-01-01\"],[\"aA@R#E$Xb\"]]", json);
+            List<List<Object>> actualResult = Serializer.deserialize(json, typeName, serializer);
+            assertEquals(nestedList, actualResult);
+        }
+    }
+
     @Test
     void deserializeHashMapValues() {
         Map<String, LocalDate> map = new HashMap<>();
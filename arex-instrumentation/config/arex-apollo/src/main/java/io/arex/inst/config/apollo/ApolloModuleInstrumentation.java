@@ -7,6 +7,7 @@ import io.arex.inst.extension.TypeInstrumentation;
 import java.util.List;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 
 /**
  * ApolloModuleInstrumentation
@@ -25,4 +26,9 @@ public class ApolloModuleInstrumentation extends ModuleInstrumentation {
                 new ApolloDefaultConfigInstrumentation(),
                 new ApolloLocalFileConfigRepositoryInstrumentation());
     }
+
+    @Override
+    public List<String> triggerPackages() {
+        return singletonList("com.ctrip.framework.apollo");
+    }
 }
@@ -19,4 +19,9 @@ public class MongoModuleInstrumentation extends ModuleInstrumentation {
         return Arrays.asList(new ReadOperationInstrumentation(), new ListIndexesInstrumentation(),
                 new AggregateInstrumentation(), new WriteOperationInstrumentation(), new ResourceManagerInstrumentation());
     }
+
+    @Override
+    public List<String> triggerPackages() {
+        return Collections.singletonList("com.mongodb");
+    }
 }
@@ -7,6 +7,7 @@ import io.arex.inst.extension.TypeInstrumentation;
 import java.util.List;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 
 /**
  * DubboModuleInstrumentation
@@ -26,4 +27,9 @@ public class DubboModuleInstrumentation extends ModuleInstrumentation {
                 new DubboConsumerInstrumentation(),
                 new DubboProviderInstrumentation());
     }
+
+    @Override
+    public List<String> triggerPackages() {
+        return singletonList("com.alibaba.dubbo");
+    }
 }
@@ -9,6 +9,7 @@ import io.arex.agent.bootstrap.model.ComparableVersion;
 import java.util.List;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 
 /**
  * DubboModuleInstrumentation
@@ -28,4 +29,9 @@ public class DubboModuleInstrumentation extends ModuleInstrumentation {
                 new DubboConsumerInstrumentation(),
                 new DubboProviderInstrumentation());
     }
+
+    @Override
+    public List<String> triggerPackages() {
+        return singletonList("org.apache.dubbo");
+    }
 }
@@ -11,6 +11,7 @@ import io.arex.agent.bootstrap.model.ComparableVersion;
 import java.util.List;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 
 /**
  * DubboModuleInstrumentation
@@ -31,4 +32,9 @@ public class DubboModuleInstrumentation extends ModuleInstrumentation {
                 new DubboStreamConsumerInstrumentation(),
                 new DubboStreamProviderInstrumentation());
     }
+
+    @Override
+    public List<String> triggerPackages() {
+        return singletonList("org.apache.dubbo");
+    }
 }
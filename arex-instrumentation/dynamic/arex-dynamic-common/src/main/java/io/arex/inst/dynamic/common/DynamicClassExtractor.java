@@ -2,6 +2,7 @@ package io.arex.inst.dynamic.common;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.arex.agent.bootstrap.constants.ConfigConstants;
 import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.agent.bootstrap.model.MockStrategyEnum;
 import io.arex.agent.bootstrap.model.Mocker;
@@ -14,6 +15,7 @@ import io.arex.inst.runtime.config.Config;
 import io.arex.inst.runtime.context.ArexContext;
 import io.arex.inst.runtime.context.ContextManager;
 import io.arex.inst.runtime.model.DynamicClassEntity;
+import io.arex.inst.runtime.serializer.SerializeSizeExceededException;
 import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.util.IgnoreUtils;
 import io.arex.inst.runtime.log.LogManager;
@@ -29,8 +31,18 @@ import java.util.concurrent.Future;
 
 public class DynamicClassExtractor {
     private static final int RESULT_SIZE_MAX = Integer.parseInt(System.getProperty("arex.dynamic.result.size.limit", "1000"));
+    /**
+     * the serialized result is limited to 10MB, the serialization aborts once it exceeds
+     */
+    private static final long RESULT_BYTES_MAX = Long.parseLong(System.getProperty(ConfigConstants.DYNAMIC_RESULT_BYTES_LIMIT, "10485760"));
     private static final String SERIALIZER = "gson";
     private static final String PROTOCOL_BUFFERS = "protobuf";
+    private static final String FORMAT_ATTRIBUTE = "Format";
+    /**
+     * protobuf result serialize mode: json (default) or base64 of wire format
+     */
+    private static final String ENCODING_ATTRIBUTE = "Encoding";
+    private static final String BASE64_ENCODING = "base64";
     private static final String LISTENABLE_FUTURE = "com.google.common.util.concurrent.ListenableFuture";
     private static final String COMPLETABLE_FUTURE = "java.util.concurrent.CompletableFuture";
     private static final String PROTOBUF_PACKAGE_NAME = "com.google.protobuf";
@@ -41,6 +53,7 @@ public class DynamicClassExtractor {
     private final String methodKey;
     private String serializedResult;
     private Object result;
+    private int resultSize;
     private String resultClazz;
     private String methodSignatureKey;
     private final String methodReturnType;
@@ -83,10 +96,18 @@ public class DynamicClassExtractor {
             this.resultClazz = buildResultClazz(TypeUtil.getName(response));
             Mocker mocker = makeMocker();
             if (isProtobufObject(response)) {
-                mocker.getTargetResponse().setAttribute("Format", PROTOCOL_BUFFERS);
-                this.serializedResult = ProtoJsonSerializer.getInstance().serialize(this.result);
+                mocker.getTargetResponse().setAttribute(FORMAT_ATTRIBUTE, PROTOCOL_BUFFERS);
+                this.serializedResult = serializeProtobuf(mocker);
             } else {
-                this.serializedResult = serialize(this.result);
+                try {
+                    this.serializedResult = serializeResult();
+                } catch (SerializeSizeExceededException e) {
+                    IgnoreUtils.addOversizedOperation(dynamicSignature, resultSize);
+                    LogManager.warn(NEED_RECORD_TITLE,
+                            StringUtil.format("do not record method, cuz serialized result exceeds %s bytes, result size: %s, method info: %s",
+                                    String.valueOf(RESULT_BYTES_MAX), String.valueOf(resultSize), methodSignatureKey));
+                    return;
+                }
             }
             mocker.getTargetResponse().setBody(this.serializedResult);
             MockUtils.recordMocker(mocker);
@@ -94,6 +115,14 @@ public class DynamicClassExtractor {
         }
     }
 
+    private String serializeProtobuf(Mocker mocker) {
+        if (Config.get() != null && Config.get().getBoolean(ConfigConstants.SERIALIZE_PROTOBUF_BINARY, false)) {
+            mocker.getTargetResponse().setAttribute(ENCODING_ATTRIBUTE, BASE64_ENCODING);
+            return ProtoJsonSerializer.getInstance().serializeBinary(this.result);
+        }
+        return ProtoJsonSerializer.getInstance().serialize(this.result);
+    }
+
     private boolean isProtobufObject(Object result) {
         if (result == null) {
             return false;
@@ -145,7 +174,11 @@ public class DynamicClassExtractor {
     }
 
     private Object deserializeResult(Mocker replayMocker, String typeName) {
-        if (PROTOCOL_BUFFERS.equals(replayMocker.getTargetResponse().getAttribute("Format"))) {
+        if (PROTOCOL_BUFFERS.equals(replayMocker.getTargetResponse().getAttribute(FORMAT_ATTRIBUTE))) {
+            if (BASE64_ENCODING.equals(replayMocker.getTargetResponse().getAttribute(ENCODING_ATTRIBUTE))) {
+                return ProtoJsonSerializer.getInstance().deserializeBinary(replayMocker.getTargetResponse().getBody(),
+                        TypeUtil.forName(typeName));
+            }
             return ProtoJsonSerializer.getInstance().deserialize(replayMocker.getTargetResponse().getBody(),
                     TypeUtil.forName(typeName));
         }
@@ -280,18 +313,18 @@ public class DynamicClassExtractor {
         }
 
         try {
-            int size = 0;
-            if (result instanceof Collection<?>) {
-                size = ((Collection<?>) result).size();
-            } else if (result instanceof Map<?, ?>) {
-                size = ((Map<?, ?>) result).size();
-            } else if (result.getClass().isArray()) {
-                size = Array.getLength(result);
-            }
-            if (size > RESULT_SIZE_MAX) {
+            resultSize = getResultSize();
+            if (resultSize > RESULT_SIZE_MAX) {
                 LogManager.warn(NEED_RECORD_TITLE,
                         StringUtil.format("do not record method, cuz result size:%s > max limit: %s, method info: %s",
-                                String.valueOf(size), String.valueOf(RESULT_SIZE_MAX), methodSignatureKey));
+                                String.valueOf(resultSize), String.valueOf(RESULT_SIZE_MAX), methodSignatureKey));
+                return false;
+            }
+            // an earlier result with the same or smaller size already exceeded the serialize bytes limit
+            if (IgnoreUtils.oversizedOperation(dynamicSignature, resultSize)) {
+                LogManager.warn(NEED_RECORD_TITLE,
+                        StringUtil.format("do not record method, cuz result size:%s is estimated to exceed %s bytes, method info: %s",
+                                String.valueOf(resultSize), String.valueOf(RESULT_BYTES_MAX), methodSignatureKey));
                 return false;
             }
         } catch (Throwable e) {
@@ -300,6 +333,19 @@ public class DynamicClassExtractor {
         return true;
     }
 
+    private int getResultSize() {
+        if (result instanceof Collection<?>) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map<?, ?>) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result.getClass().isArray()) {
+            return Array.getLength(result);
+        }
+        return 0;
+    }
+
     private String buildDuplicateMethodKey() {
         if (Objects.isNull(result)) {
             return String.format("%s_%s_%s_no_result", clazzName, methodName, methodKey);
@@ -342,6 +388,21 @@ public class DynamicClassExtractor {
         return serializedResult;
     }
 
+    private String serializeResult() throws SerializeSizeExceededException {
+        if (IgnoreUtils.invalidOperation(dynamicSignature)) {
+            return null;
+        }
+        try {
+            return Serializer.serializeWithException(this.result, SERIALIZER, RESULT_BYTES_MAX);
+        } catch (SerializeSizeExceededException e) {
+            throw e;
+        } catch (Throwable ex) {
+            IgnoreUtils.addInvalidOperation(dynamicSignature);
+            LogManager.warn("serializeWithException", StringUtil.format("can not serialize object: %s, cause: %s", TypeUtil.errorSerializeToString(this.result), ex.toString()));
+            return null;
+        }
+    }
+
     private String serialize(Object object) {
         if (IgnoreUtils.invalidOperation(dynamicSignature)) {
             return null;
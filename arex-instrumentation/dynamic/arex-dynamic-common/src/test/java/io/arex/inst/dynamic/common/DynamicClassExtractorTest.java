@@ -4,6 +4,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.arex.agent.bootstrap.model.ArexMocker;
 import io.arex.agent.bootstrap.model.Mocker.Target;
+import io.arex.agent.bootstrap.constants.ConfigConstants;
 import io.arex.inst.serializer.ProtoJsonSerializer;
 import io.arex.inst.runtime.config.ConfigBuilder;
 import io.arex.inst.runtime.context.ArexContext;
@@ -11,6 +12,7 @@ import io.arex.inst.runtime.context.ContextManager;
 import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.agent.bootstrap.util.StringUtil;
 import io.arex.inst.runtime.model.DynamicClassEntity;
+import io.arex.inst.runtime.serializer.SerializeSizeExceededException;
 import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.util.IgnoreUtils;
 import io.arex.inst.runtime.util.MockUtils;
@@ -19,6 +21,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -43,11 +46,13 @@ import java.util.stream.Stream;
 import org.mockito.stubbing.Answer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.times;
@@ -367,6 +372,45 @@ class DynamicClassExtractorTest {
         }
     }
 
+    @Test
+    void testProtoBufBinaryResult() throws Exception {
+        try (MockedStatic<MockUtils> mockService = mockStatic(MockUtils.class)) {
+            ConfigBuilder.create("test").enableDebug(true)
+                .addProperty(ConfigConstants.SERIALIZE_PROTOBUF_BINARY, "true").build();
+            ArexMocker arexMocker = new ArexMocker();
+            arexMocker.setTargetRequest(new Target());
+            arexMocker.setTargetResponse(new Target());
+            mockService.when(() -> MockUtils.createDynamicClass(any(), any())).thenReturn(arexMocker);
+            mockService.when(() -> MockUtils.checkResponseMocker(any())).thenReturn(true);
+            Mockito.when(ContextManager.currentContext()).thenReturn(ArexContext.of(""));
+            Method testWithArexMock = DynamicClassExtractorTest.class.getDeclaredMethod(
+                    "testWithArexMock", String.class);
+            DynamicClassExtractor extractor = new DynamicClassExtractor(testWithArexMock,
+                    new Object[]{"binary"}, "#val", String.class);
+
+            ProtoJsonSerializer mock = Mockito.mock(ProtoJsonSerializer.class);
+            mockedProtoJson.when(ProtoJsonSerializer::getInstance).thenReturn(mock);
+            Mockito.when(mock.serializeBinary(any())).thenReturn("CgNhYmM=");
+
+            // record with wire format
+            ProtoBufClassTest protoBufClassTest = new ProtoBufClassTest();
+            extractor.recordResponse(protoBufClassTest);
+            Mockito.verify(mock, Mockito.times(1)).serializeBinary(protoBufClassTest);
+            Mockito.verify(mock, Mockito.never()).serialize(any());
+            assertEquals("protobuf", arexMocker.getTargetResponse().getAttribute("Format"));
+            assertEquals("base64", arexMocker.getTargetResponse().getAttribute("Encoding"));
+
+            // replay by the recorded encoding
+            arexMocker.getTargetResponse().setType(ProtoBufClassTest.class.getName());
+            mockService.when(() -> MockUtils.replayMocker(any(), any())).thenReturn(arexMocker);
+            extractor.replay();
+            Mockito.verify(mock, Mockito.times(1)).deserializeBinary(any(), any());
+            Mockito.verify(mock, Mockito.never()).deserialize(any(), (Type) any());
+        } finally {
+            ConfigBuilder.create("test").enableDebug(true).build();
+        }
+    }
+
     @Test
     public void testProtoBufResultReplay() {
         try (MockedStatic<MockUtils> mockService = mockStatic(MockUtils.class)) {
@@ -419,6 +463,38 @@ class DynamicClassExtractorTest {
         }
     }
 
+    @Test
+    void recordOversizedResult() throws Throwable {
+        try (MockedStatic<MockUtils> mockService = mockStatic(MockUtils.class)) {
+            ArexMocker arexMocker = new ArexMocker();
+            arexMocker.setTargetRequest(new Target());
+            arexMocker.setTargetResponse(new Target());
+            mockService.when(() -> MockUtils.createDynamicClass(any(), any())).thenReturn(arexMocker);
+            Mockito.when(ContextManager.currentContext()).thenReturn(ArexContext.of(""));
+            Mockito.when(Serializer.serializeWithException(any(), anyString(), anyLong()))
+                .thenThrow(new SerializeSizeExceededException(10));
+
+            Method testReturnListenableFuture = DynamicClassExtractorTest.class.getDeclaredMethod(
+                "testReturnListenableFuture", String.class, Throwable.class);
+            String signature = DynamicClassExtractorTest.class.getName() + "testReturnListenableFuture2";
+            // an oversized result without size does not stop recording the operation
+            DynamicClassExtractor beanExtractor = new DynamicClassExtractor(testReturnListenableFuture,
+                new Object[]{"oversized-bean", null});
+            beanExtractor.recordResponse("oversized-bean");
+            assertNull(beanExtractor.getSerializedResult());
+            assertFalse(IgnoreUtils.oversizedOperation(signature, 3));
+
+            DynamicClassExtractor extractor = new DynamicClassExtractor(testReturnListenableFuture, new Object[]{"oversized", null});
+            extractor.recordResponse(Arrays.asList("a", "b"));
+
+            assertNull(extractor.getSerializedResult());
+            mockService.verify(() -> MockUtils.recordMocker(any()), times(0));
+            // results of the same or larger size are estimated oversized without serializing again
+            assertTrue(IgnoreUtils.oversizedOperation(signature, 3));
+            assertFalse(IgnoreUtils.oversizedOperation(signature, 1));
+        }
+    }
+
     @Test
     void invalidOperation() throws Throwable {
         Method testWithArexMock = DynamicClassExtractorTest.class.getDeclaredMethod("testWithArexMock", String.class);
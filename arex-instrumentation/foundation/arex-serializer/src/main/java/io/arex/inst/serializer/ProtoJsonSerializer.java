@@ -1,18 +1,24 @@
 package io.arex.inst.serializer;
 
 import com.google.protobuf.AbstractMessage.Builder;
+import com.google.protobuf.Parser;
 import com.google.protobuf.util.JsonFormat;
 import com.google.protobuf.AbstractMessage;
 import io.arex.agent.bootstrap.util.StringUtil;
 import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.serializer.StringSerializable;
 import io.arex.inst.runtime.log.LogManager;
+import io.arex.inst.runtime.util.JsonArrayUtil;
 import io.arex.inst.runtime.util.TypeUtil;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 
 public class ProtoJsonSerializer implements StringSerializable{
@@ -20,6 +26,32 @@ public class ProtoJsonSerializer implements StringSerializable{
     private static final JsonFormat.Printer JSON_PRINTER = JsonFormat.printer().omittingInsignificantWhitespace();
     private static final JsonFormat.Parser JSON_PARSER = JsonFormat.parser().ignoringUnknownFields();
     private static final String GSON_SERIALIZER = "gson";
+    private static final String NULL_STRING = "null";
+    private static final char QUOTE = '"';
+    /**
+     * The cached values reference their message class, a ClassValue keeps them with the class so the application
+     * class loader is not pinned (a weak keyed map would be pinned by its values)
+     */
+    private static final ClassValue<MethodHandle> BUILDER_CACHE = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            try {
+                return MethodHandles.publicLookup().unreflect(type.getDeclaredMethod("newBuilder"));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("not a protobuf message: " + type.getName(), e);
+            }
+        }
+    };
+    private static final ClassValue<Parser<?>> PARSER_CACHE = new ClassValue<Parser<?>>() {
+        @Override
+        protected Parser<?> computeValue(Class<?> type) {
+            try {
+                return (Parser<?>) MethodHandles.publicLookup().unreflect(type.getDeclaredMethod("parser")).invoke();
+            } catch (Throwable e) {
+                throw new IllegalArgumentException("not a protobuf message: " + type.getName(), e);
+            }
+        }
+    };
 
     public static ProtoJsonSerializer getInstance() {
         return INSTANCE;
@@ -32,18 +64,14 @@ public class ProtoJsonSerializer implements StringSerializable{
 
     /**
      * for the type inside the Collection is the PB type,
-     * traverse the elements inside the Collection and serialize them one by one with separators
+     * traverse the elements inside the Collection and print them into one json array
      */
     @Override
     public String serialize(Object object) {
         try {
             if (object instanceof Collection<?>) {
                 StringBuilder jsonBuilder = new StringBuilder();
-                Collection<?> ans = (Collection<?>) object;
-                for (Object innerObject : ans) {
-                    jsonBuilder.append(serialize(innerObject));
-                    jsonBuilder.append(Serializer.SERIALIZE_SEPARATOR);
-                }
+                appendJson((Collection<?>) object, jsonBuilder);
                 return jsonBuilder.toString();
             }
             return JSON_PRINTER.print((AbstractMessage) object);
@@ -53,6 +81,68 @@ public class ProtoJsonSerializer implements StringSerializable{
         }
     }
 
+    /**
+     * inner collections (eg: List<List<Proto>>) are printed as nested json arrays
+     */
+    private static void appendJson(Collection<?> collection, StringBuilder jsonBuilder) throws IOException {
+        jsonBuilder.append('[');
+        Iterator<?> iterator = collection.iterator();
+        while (iterator.hasNext()) {
+            Object innerObject = iterator.next();
+            if (innerObject == null) {
+                jsonBuilder.append(NULL_STRING);
+            } else if (innerObject instanceof Collection<?>) {
+                appendJson((Collection<?>) innerObject, jsonBuilder);
+            } else {
+                JSON_PRINTER.appendTo((AbstractMessage) innerObject, jsonBuilder);
+            }
+            if (iterator.hasNext()) {
+                jsonBuilder.append(',');
+            }
+        }
+        jsonBuilder.append(']');
+    }
+
+    /**
+     * serialize by protobuf wire format, the bytes of message are encoded with base64,
+     * Collection is serialized to a json array of base64 strings, example: ["CgNhYmM=","CgNkZWY="]
+     */
+    public String serializeBinary(Object object) {
+        try {
+            if (object instanceof Collection<?>) {
+                StringBuilder builder = new StringBuilder();
+                appendBinary((Collection<?>) object, builder);
+                return builder.toString();
+            }
+            return encode((AbstractMessage) object);
+        } catch (Throwable e) {
+            LogManager.warn("proto-serialize-binary", e);
+            return StringUtil.EMPTY;
+        }
+    }
+
+    /**
+     * inner collections are nested json arrays, example: [["CgNhYmM="],["CgNkZWY="]]
+     */
+    private static void appendBinary(Collection<?> collection, StringBuilder builder) {
+        builder.append('[');
+        Iterator<?> iterator = collection.iterator();
+        while (iterator.hasNext()) {
+            Object innerObject = iterator.next();
+            if (innerObject == null) {
+                builder.append(NULL_STRING);
+            } else if (innerObject instanceof Collection<?>) {
+                appendBinary((Collection<?>) innerObject, builder);
+            } else {
+                builder.append(QUOTE).append(encode((AbstractMessage) innerObject)).append(QUOTE);
+            }
+            if (iterator.hasNext()) {
+                builder.append(',');
+            }
+        }
+        builder.append(']');
+    }
+
     @Override
     public <T> T deserialize(String value, Class<T> clazz) {
         if (StringUtil.isEmpty(value) || clazz == null) {
@@ -76,11 +166,36 @@ public class ProtoJsonSerializer implements StringSerializable{
         Class<T> rawClass = (Class<T>) TypeUtil.getRawClass(type);
         if (rawClass != null && Collection.class.isAssignableFrom(rawClass) && type instanceof ParameterizedType) {
             final Type[] actualTypeArguments = ((ParameterizedType) type).getActualTypeArguments();
-            return deserializeCollection(value, rawClass, actualTypeArguments);
+            return deserializeCollection(value, rawClass, actualTypeArguments, false);
         }
         return deserialize(value, rawClass);
     }
 
+    /**
+     * deserialize the value serialized by {@link #serializeBinary(Object)}
+     */
+    public <T> T deserializeBinary(String value, Type type) {
+        Class<T> rawClass = (Class<T>) TypeUtil.getRawClass(type);
+        if (rawClass != null && Collection.class.isAssignableFrom(rawClass) && type instanceof ParameterizedType) {
+            final Type[] actualTypeArguments = ((ParameterizedType) type).getActualTypeArguments();
+            return deserializeCollection(value, rawClass, actualTypeArguments, true);
+        }
+        return deserializeBinary(value, rawClass);
+    }
+
+    private <T> T deserializeBinary(String value, Class<T> clazz) {
+        if (StringUtil.isEmpty(value) || clazz == null) {
+            return null;
+        }
+
+        try {
+            return (T) getMessageParser(clazz).parseFrom(Base64.getDecoder().decode(value));
+        } catch (Throwable e) {
+            LogManager.warn("proto-deserialize-binary", e);
+            return null;
+        }
+    }
+
     @Override
     public StringSerializable reCreateSerializer() {
         return INSTANCE;
@@ -88,21 +203,31 @@ public class ProtoJsonSerializer implements StringSerializable{
 
     /**
      * deserialize collection protoBuf result :
-     * for Collection type PB, split the Json string by delimiter, then deserialize and add to Collection one by one
-     * @param value : Json string, example:[{}Serializer.SERIALIZE_SEPARATOR{}]
+     * for Collection type PB, split the Json array into elements, then deserialize and add to Collection one by one
+     * @param value : Json string, example:[{},{}], recorded by old version: {}Serializer.SERIALIZE_SEPARATOR{}
      * @param types example:rawClass: java.util.List; types[0]: entity (entity extends com.google.protobuf.GeneratedMessageV3)
+     *              or a collection of entity
+     * @param binary whether the elements are base64 encoded wire format
      * @return collection<Proto>
      */
-    private <T> T deserializeCollection(String value, Class<?> rawClass, Type[] types) {
+    private <T> T deserializeCollection(String value, Class<?> rawClass, Type[] types, boolean binary) {
         if (types != null && types.length == 1) {
-            String[] split = StringUtil.splitByWholeSeparator(value, Serializer.SERIALIZE_SEPARATOR);
             Collection<Object> collection = (Collection<Object>) Serializer.deserialize(Serializer.EMPTY_LIST_JSON, rawClass,
                     GSON_SERIALIZER);
-            for (String innerObject : split) {
-                if (StringUtil.isEmpty(innerObject)) {
+            Class<T> elementClass = (Class<T>) TypeUtil.getRawClass(types[0]);
+            boolean nested = elementClass != null && Collection.class.isAssignableFrom(elementClass);
+            for (String innerObject : splitCollection(value)) {
+                if (StringUtil.isEmpty(innerObject) || StringUtil.isNullWord(innerObject)) {
                     continue;
                 }
-                Object deserialize = deserialize(innerObject, (Class<T>) TypeUtil.getRawClass(types[0]));
+                Object deserialize;
+                if (nested) {
+                    // inner collection, eg: List<List<Proto>>
+                    deserialize = binary ? deserializeBinary(innerObject, types[0]) : deserialize(innerObject, types[0]);
+                } else {
+                    deserialize = binary ? deserializeBinary(unquote(innerObject), elementClass) :
+                            deserialize(innerObject, elementClass);
+                }
                 if (collection != null && deserialize != null) {
                     collection.add(deserialize);
                 }
@@ -113,14 +238,42 @@ public class ProtoJsonSerializer implements StringSerializable{
     }
 
     /**
-     * Create Class.Builder based on Class reflection for Json deserialization
+     * the json array is split by its structure, so the separator may be in the values of the elements,
+     * the value recorded by old version is not a json array and split by the separator
+     */
+    private String[] splitCollection(String value) {
+        List<String> elements = JsonArrayUtil.splitElements(value);
+        if (elements != null) {
+            return elements.toArray(StringUtil.EMPTY_STRING_ARRAY);
+        }
+        return StringUtil.splitByWholeSeparator(value, Serializer.SERIALIZE_SEPARATOR);
+    }
+
+    private static String encode(AbstractMessage message) {
+        return Base64.getEncoder().encodeToString(message.toByteArray());
+    }
+
+    private static String unquote(String value) {
+        if (value.length() > 1 && value.charAt(0) == QUOTE && value.charAt(value.length() - 1) == QUOTE) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * Create Class.Builder by the cached newBuilder method handle for Json deserialization
      * @param clazz
      * @return Class.Builder
      */
-    private AbstractMessage.Builder<?> getMessageBuilder(Class<?> clazz)
-            throws InvocationTargetException, IllegalAccessException, NoSuchMethodException {
-        Method method = clazz.getDeclaredMethod("newBuilder");
-        return (Builder<?>) method.invoke(null);
+    private AbstractMessage.Builder<?> getMessageBuilder(Class<?> clazz) throws Throwable {
+        return (Builder<?>) BUILDER_CACHE.get(clazz).invoke();
+    }
+
+    /**
+     * Get the static parser of message class for wire format deserialization
+     */
+    private Parser<?> getMessageParser(Class<?> clazz) {
+        return PARSER_CACHE.get(clazz);
     }
 
 }
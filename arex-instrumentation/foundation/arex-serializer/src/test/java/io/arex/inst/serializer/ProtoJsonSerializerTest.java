@@ -0,0 +1,97 @@
+package io.arex.inst.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.google.protobuf.StringValue;
+import io.arex.inst.runtime.serializer.Serializer;
+import io.arex.inst.runtime.serializer.StringSerializable;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class ProtoJsonSerializerTest {
+    static ProtoJsonSerializer serializer = ProtoJsonSerializer.getInstance();
+    static List<StringValue> list;
+    static List<List<StringValue>> nestedList;
+
+    @BeforeAll
+    static void setUp() throws Throwable {
+        // the collection is created by gson
+        StringSerializable gson = Mockito.mock(StringSerializable.class);
+        Mockito.when(gson.deserialize(Mockito.anyString(), Mockito.any(Type.class)))
+            .thenAnswer(invocation -> new ArrayList<>());
+        Serializer.builder(Mockito.mock(StringSerializable.class)).addSerializer("gson", gson).build();
+    }
+
+    @Test
+    void collectionWithSeparator() throws Exception {
+        List<StringValue> values = Arrays.asList(of("a" + Serializer.SERIALIZE_SEPARATOR + "b"), of("c"));
+        Type type = type("list");
+
+        String json = serializer.serialize(values);
+        assertEquals("[\"aA@R#E$Xb\",\"c\"]", json);
+        assertEquals(values, serializer.deserialize(json, type));
+        assertEquals(values, serializer.deserializeBinary(serializer.serializeBinary(values), type));
+    }
+
+    @Test
+    void nestedCollectionWithSeparator() throws Exception {
+        List<List<StringValue>> values = Arrays.asList(
+            Arrays.asList(of(Serializer.SERIALIZE_SEPARATOR), of("a")), Collections.singletonList(of("b")));
+        Type type = type("nestedList");
+
+        String json = serializer.serialize(values);
+        assertEquals("[[\"A@R#E$X\",\"a\"],[\"b\"]]", json);
+        assertEquals(values, serializer.deserialize(json, type));
+        assertEquals(values, serializer.deserializeBinary(serializer.serializeBinary(values), type));
+    }
+
+    /**
+     * recorded by old version, the elements are joined by the separator
+     */
+    @Test
+    void legacyCollection() throws Exception {
+        String json = "\"a\"" + Serializer.SERIALIZE_SEPARATOR + "\"b\"";
+        assertEquals(Arrays.asList(of("a"), of("b")), serializer.deserialize(json, type("list")));
+    }
+
+    /**
+     * The cached builder of a message class does not pin its class loader
+     */
+    @Test
+    void releaseMessageClassLoader() throws Exception {
+        WeakReference<ClassLoader> reference = deserializeInDroppedLoader();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (reference.get() != null && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(reference.get());
+    }
+
+    private static WeakReference<ClassLoader> deserializeInDroppedLoader() throws Exception {
+        URL protobuf = StringValue.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader loader = new URLClassLoader(new URL[]{protobuf}, null);
+        Class<?> messageClass = loader.loadClass(StringValue.class.getName());
+        // the builder is created by the cached method handle, it is not a builder of the agent protobuf classes
+        assertNull(serializer.deserialize("\"a\"", messageClass));
+        return new WeakReference<>(loader);
+    }
+
+    private static StringValue of(String value) {
+        return StringValue.newBuilder().setValue(value).build();
+    }
+
+    private static Type type(String field) throws NoSuchFieldException {
+        return ProtoJsonSerializerTest.class.getDeclaredField(field).getGenericType();
+    }
+}
@@ -3,7 +3,9 @@ package io.arex.inst.executors;
 import com.google.auto.service.AutoService;
 import io.arex.inst.extension.ModuleInstrumentation;
 import io.arex.inst.extension.TypeInstrumentation;
+import net.bytebuddy.utility.OpenedClassReader;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.Arrays.asList;
@@ -17,9 +19,14 @@ public class ExecutorsModuleInstrumentation extends ModuleInstrumentation {
 
     @Override
     public List<TypeInstrumentation> instrumentationTypes() {
-        return asList(new ThreadPoolInstrumentation(),
+        List<TypeInstrumentation> types = new ArrayList<>(asList(new ThreadPoolInstrumentation(),
                 new ForkJoinTaskInstrumentation(),
                 new FutureTaskInstrumentation(),
-                new ForkJoinTaskConstructorInstrumentation());
+                new ForkJoinTaskConstructorInstrumentation()));
+        // the jdk 21 class files are only parsed by the bundled byte-buddy in experimental mode
+        if (Boolean.getBoolean(OpenedClassReader.EXPERIMENTAL_PROPERTY)) {
+            types.add(new VirtualThreadInstrumentation());
+        }
+        return types;
     }
 }
@@ -37,9 +37,17 @@ public class ForkJoinTaskInstrumentation extends TypeInstrumentation {
             backup = ArexThreadLocal.Transmitter.replay(captured);
         }
 
+        /**
+         * The captured context is consumed by the execution, removed here instead of waiting for the task to be collected
+         */
         @Advice.OnMethodExit(suppress = Throwable.class)
-        public static void onExit(@Advice.Local("backup") Object backup) {
-            ArexThreadLocal.Transmitter.restore(backup);
+        public static void onExit(
+                @Advice.This Object task,
+                @Advice.Local("backup") Object backup) {
+            if (backup != null) {
+                ArexThreadLocal.Transmitter.restore(backup);
+                Cache.CAPTURED_CACHE.remove(task);
+            }
         }
     }
 }
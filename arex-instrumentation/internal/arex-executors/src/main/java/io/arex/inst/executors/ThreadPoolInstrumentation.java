@@ -23,7 +23,7 @@ public class ThreadPoolInstrumentation extends TypeInstrumentation {
 
     @Override
     public ElementMatcher<TypeDescription> typeMatcher() {
-        return (t) -> includeExecutors.contains(t.getName());
+        return namedOneOf(includeExecutors.toArray(new String[0]));
     }
 
     @Override
@@ -0,0 +1,49 @@
+package io.arex.inst.executors;
+
+import io.arex.agent.bootstrap.ctx.RunnableWrapper;
+import io.arex.inst.extension.MethodInstrumentation;
+import io.arex.inst.extension.TypeInstrumentation;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static net.bytebuddy.matcher.ElementMatchers.isConstructor;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
+
+/**
+ * JDK 21 virtual thread, all the creation paths (Thread.ofVirtual(), Thread.startVirtualThread,
+ * Executors.newVirtualThreadPerTaskExecutor, StructuredTaskScope.fork) construct a java.lang.VirtualThread
+ * with the task, so the task is wrapped in the constructor:
+ * VirtualThread(Executor scheduler, String name, int characteristics, Runnable task)
+ * <p>
+ * Installed only when byte-buddy runs in experimental mode (the relocated property in the agent jar:
+ * -Dshaded.net.bytebuddy.experimental=true), the bundled byte-buddy can not read the jdk 21 class files otherwise.
+ */
+public class VirtualThreadInstrumentation extends TypeInstrumentation {
+    private static final String VIRTUAL_THREAD_CLASS = "java.lang.VirtualThread";
+
+    @Override
+    public ElementMatcher<TypeDescription> typeMatcher() {
+        return named(VIRTUAL_THREAD_CLASS);
+    }
+
+    @Override
+    public List<MethodInstrumentation> methodAdvices() {
+        return singletonList(new MethodInstrumentation(
+                isConstructor().and(takesArguments(4)).and(takesArgument(3, Runnable.class)),
+                this.getClass().getName() + "$ConstructorAdvice"));
+    }
+
+    @SuppressWarnings("unused")
+    public static class ConstructorAdvice {
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        public static void onEnter(@Advice.Argument(value = 3, readOnly = false) Runnable task) {
+            task = RunnableWrapper.get(task);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.arex.inst.executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import net.bytebuddy.utility.OpenedClassReader;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,4 +22,14 @@ class ExecutorsModuleInstrumentationTest {
     void instrumentationTypes() {
         assertEquals(4, module.instrumentationTypes().size());
     }
+
+    @Test
+    void virtualThreadInExperimentalMode() {
+        System.setProperty(OpenedClassReader.EXPERIMENTAL_PROPERTY, "true");
+        try {
+            assertTrue(module.instrumentationTypes().get(4) instanceof VirtualThreadInstrumentation);
+        } finally {
+            System.clearProperty(OpenedClassReader.EXPERIMENTAL_PROPERTY);
+        }
+    }
 }
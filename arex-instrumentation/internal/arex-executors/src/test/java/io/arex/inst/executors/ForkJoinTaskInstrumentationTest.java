@@ -2,9 +2,12 @@ package io.arex.inst.executors;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import io.arex.agent.bootstrap.TraceContextManager;
 import io.arex.agent.bootstrap.ctx.ArexThreadLocal;
+import io.arex.agent.bootstrap.internal.Cache;
 import io.arex.inst.executors.ForkJoinTaskInstrumentation.ExecAdvice;
 import java.util.concurrent.CountedCompleter;
 import java.util.concurrent.ForkJoinTask;
@@ -44,7 +47,22 @@ class ForkJoinTaskInstrumentationTest {
 
     @Test
     void ExecAdvice_onExit() {
-        assertDoesNotThrow(() -> ExecAdvice.onExit(ArexThreadLocal.Transmitter.capture()));
+        assertDoesNotThrow(() -> ExecAdvice.onExit("fork-test", ArexThreadLocal.Transmitter.capture()));
+    }
+
+    @Test
+    void ExecAdvice_removeCaptured() {
+        TraceContextManager.set("mock-trace-id");
+        Object captured = ArexThreadLocal.Transmitter.capture();
+        TraceContextManager.remove();
+        Object task = new Object();
+        Cache.CAPTURED_CACHE.put(task, captured);
+
+        Object backup = ArexThreadLocal.Transmitter.replay(Cache.CAPTURED_CACHE.get(task));
+        assertEquals("mock-trace-id", TraceContextManager.get());
+        ExecAdvice.onExit(task, backup);
+        assertNull(TraceContextManager.get());
+        assertNull(Cache.CAPTURED_CACHE.get(task));
     }
 
     @Test
@@ -0,0 +1,70 @@
+package io.arex.inst.executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.arex.agent.bootstrap.TraceContextManager;
+import io.arex.agent.bootstrap.ctx.RunnableWrapper;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+class VirtualThreadInstrumentationTest {
+    VirtualThreadInstrumentation inst = new VirtualThreadInstrumentation();
+
+    @Test
+    void typeMatcher() {
+        assertFalse(inst.typeMatcher().matches(TypeDescription.ForLoadedType.of(Thread.class)));
+    }
+
+    @Test
+    void methodAdvices() {
+        assertEquals(1, inst.methodAdvices().size());
+    }
+
+    static boolean virtualThreadSupported() {
+        try {
+            return Integer.parseInt(System.getProperty("java.specification.version")) >= 21;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Exactly one constructor of the running jdk takes the task as the advice expects
+     */
+    @Test
+    @EnabledIf("virtualThreadSupported")
+    void virtualThreadConstructor() throws Exception {
+        Class<?> virtualThread = Class.forName("java.lang.VirtualThread");
+        assertTrue(inst.typeMatcher().matches(TypeDescription.ForLoadedType.of(virtualThread)));
+        ElementMatcher<? super MethodDescription> constructorMatcher = inst.methodAdvices().get(0).getMethodMatcher();
+        long matched = Arrays.stream(virtualThread.getDeclaredConstructors())
+            .filter(constructor -> constructorMatcher.matches(new MethodDescription.ForLoadedConstructor(constructor)))
+            .count();
+        assertEquals(1, matched);
+    }
+
+    /**
+     * The task wrapped as the constructor advice does runs with the trace of the creating thread
+     */
+    @Test
+    @EnabledIf("virtualThreadSupported")
+    void virtualThreadTransmit() throws Exception {
+        TraceContextManager.set("mock-trace-id");
+        AtomicReference<String> traceId = new AtomicReference<>();
+        try {
+            Runnable task = RunnableWrapper.get(() -> traceId.set(TraceContextManager.get()));
+            Thread thread = (Thread) Thread.class.getMethod("startVirtualThread", Runnable.class).invoke(null, task);
+            thread.join();
+        } finally {
+            TraceContextManager.remove();
+        }
+        assertEquals("mock-trace-id", traceId.get());
+    }
+}
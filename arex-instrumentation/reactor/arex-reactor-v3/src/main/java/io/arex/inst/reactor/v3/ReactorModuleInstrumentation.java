@@ -0,0 +1,22 @@
+package io.arex.inst.reactor.v3;
+
+import com.google.auto.service.AutoService;
+import io.arex.inst.extension.ModuleInstrumentation;
+import io.arex.inst.extension.TypeInstrumentation;
+
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+@AutoService(ModuleInstrumentation.class)
+public class ReactorModuleInstrumentation extends ModuleInstrumentation {
+
+    public ReactorModuleInstrumentation() {
+        super("reactor-v3");
+    }
+
+    @Override
+    public List<TypeInstrumentation> instrumentationTypes() {
+        return singletonList(new SchedulersInstrumentation());
+    }
+}
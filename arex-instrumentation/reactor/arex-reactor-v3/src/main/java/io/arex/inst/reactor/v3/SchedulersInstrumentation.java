@@ -0,0 +1,46 @@
+package io.arex.inst.reactor.v3;
+
+import io.arex.agent.bootstrap.ctx.RunnableWrapper;
+import io.arex.inst.extension.MethodInstrumentation;
+import io.arex.inst.extension.TypeInstrumentation;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static net.bytebuddy.matcher.ElementMatchers.isPublic;
+import static net.bytebuddy.matcher.ElementMatchers.isStatic;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
+
+/**
+ * Every task submitted to a reactor Scheduler (publishOn, subscribeOn, delayElements, timeout...)
+ * passes Schedulers.onSchedule(Runnable), the task is wrapped there so the trace follows the scheduler hop
+ * without wrapping each operator. A task scheduled without trace is returned as is.
+ */
+public class SchedulersInstrumentation extends TypeInstrumentation {
+
+    @Override
+    protected ElementMatcher<TypeDescription> typeMatcher() {
+        return named("reactor.core.scheduler.Schedulers");
+    }
+
+    @Override
+    public List<MethodInstrumentation> methodAdvices() {
+        return singletonList(new MethodInstrumentation(
+                named("onSchedule").and(isPublic()).and(isStatic())
+                        .and(takesArguments(1)).and(takesArgument(0, Runnable.class)),
+                this.getClass().getName() + "$OnScheduleAdvice"));
+    }
+
+    @SuppressWarnings("unused")
+    public static class OnScheduleAdvice {
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        public static void onEnter(@Advice.Argument(value = 0, readOnly = false) Runnable runnable) {
+            runnable = RunnableWrapper.get(runnable);
+        }
+    }
+}
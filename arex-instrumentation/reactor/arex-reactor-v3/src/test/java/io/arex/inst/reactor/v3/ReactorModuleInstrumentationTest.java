@@ -0,0 +1,14 @@
+package io.arex.inst.reactor.v3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class ReactorModuleInstrumentationTest {
+    ReactorModuleInstrumentation module = new ReactorModuleInstrumentation();
+
+    @Test
+    void instrumentationTypes() {
+        assertEquals(1, module.instrumentationTypes().size());
+    }
+}
@@ -0,0 +1,92 @@
+package io.arex.inst.reactor.v3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.arex.agent.bootstrap.TraceContextManager;
+import io.arex.inst.extension.MethodInstrumentation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Optional;
+import net.bytebuddy.agent.ByteBuddyAgent;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.agent.builder.ResettableClassFileTransformer;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+class SchedulersInstrumentationTest {
+    static SchedulersInstrumentation inst = new SchedulersInstrumentation();
+    static ResettableClassFileTransformer transformer;
+    static Scheduler single;
+
+    /**
+     * Install the advice on the loaded Schedulers class, the same way as the agent
+     */
+    @BeforeAll
+    static void setUp() {
+        MethodInstrumentation method = inst.methodAdvices().get(0);
+        transformer = new AgentBuilder.Default()
+                .disableClassFormatChanges()
+                .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+                .type(inst.matcher())
+                .transform(new AgentBuilder.Transformer.ForAdvice()
+                        .advice(method.getMethodMatcher(), method.getAdviceClassName()))
+                .installOn(ByteBuddyAgent.install());
+        single = Schedulers.newSingle("arex-test");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        single.dispose();
+        transformer.reset(ByteBuddyAgent.getInstrumentation(), AgentBuilder.RedefinitionStrategy.RETRANSFORMATION);
+    }
+
+    @Test
+    void typeMatcher() {
+        assertTrue(inst.typeMatcher().matches(TypeDescription.ForLoadedType.of(Schedulers.class)));
+    }
+
+    @Test
+    void methodAdvices() throws NoSuchMethodException {
+        assertEquals(1, inst.methodAdvices().size());
+        Method onSchedule = Schedulers.class.getMethod("onSchedule", Runnable.class);
+        assertTrue(inst.methodAdvices().get(0).getMethodMatcher()
+                .matches(new MethodDescription.ForLoadedMethod(onSchedule)));
+    }
+
+    @Test
+    void publishOn() {
+        Mono<Optional<String>> mono = Mono.just("mock")
+                .publishOn(single)
+                .map(value -> Optional.ofNullable(TraceContextManager.get()));
+        assertHop(mono);
+    }
+
+    @Test
+    void subscribeOn() {
+        Mono<Optional<String>> mono = Mono.fromCallable(() -> Optional.ofNullable(TraceContextManager.get()))
+                .subscribeOn(single);
+        assertHop(mono);
+    }
+
+    /**
+     * The task sees the trace of the subscribing thread, the scheduler thread has no trace after the task
+     */
+    private static void assertHop(Mono<Optional<String>> mono) {
+        TraceContextManager.set("mock-trace-id");
+        try {
+            assertEquals(Optional.of("mock-trace-id"), mono.block(Duration.ofSeconds(5)));
+        } finally {
+            TraceContextManager.remove();
+        }
+        String leaked = Mono.fromCallable(TraceContextManager::get).subscribeOn(single).block(Duration.ofSeconds(5));
+        assertNull(leaked);
+    }
+}
@@ -9,6 +9,8 @@ import io.arex.agent.bootstrap.model.ComparableVersion;
 import java.util.Arrays;
 import java.util.List;
 
+import static java.util.Collections.singletonList;
+
 /**
  * RedissonModuleInstrumentation
  */
@@ -23,4 +25,9 @@ public class RedissonModuleInstrumentation extends ModuleInstrumentation {
     public List<TypeInstrumentation> instrumentationTypes() {
         return Arrays.asList(new RedissonInstrumentation());
     }
+
+    @Override
+    public List<String> triggerPackages() {
+        return singletonList("org.redisson");
+    }
 }